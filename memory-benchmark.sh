@@ -1,19 +1,4 @@
-
-function parse()
-{
-	parser="$1"
-	fileName="$2"
-	heapsize="$3"
-
-    result=`java -Xss4m -XX:+UseG1GC "-Xmx${heapsize}m" -cp target/benchmarks.jar "iguana.SingleFile${parser}Run" "$fileName" 2>/dev/null`
-
-	if [ $? -eq 0 ]; then
-		echo "${result}${heapsize}"
-	else
-		((heapsize++))
-		parse "$parser" "$fileName" "$heapsize"
-	fi
-}
+#!/usr/bin/env bash
 
 parser=$1
 dir=$2
@@ -30,6 +15,5 @@ then
 	exit 1
 fi
 
-find $dir -iname "*.java" | while read fileName; do
-	parse "$parser" "$fileName" 5
-done
+# Pass --verify as the third argument to bisect -Xmx for every file in a separate JVM
+java -Xss4m -XX:+UseG1GC -cp target/benchmarks.jar iguana.benchmark.MemoryBenchmark "$parser" "$dir" $3
@@ -6,21 +6,113 @@ import org.antlr.v4.runtime.*;
 import org.antlr.v4.runtime.atn.ATNConfigSet;
 import org.antlr.v4.runtime.dfa.DFA;
 import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 
+import java.nio.charset.StandardCharsets;
 import java.util.BitSet;
+import java.util.List;
 
-public class AntlrJavaParser {
+import static iguana.Utils.sha256;
 
+public class AntlrJavaParser implements JavaSourceParser<JavaParser.CompilationUnitContext>, BodyParser {
+
+    private final boolean lean;
+
+    private final boolean releaseTokens;
+
+    private final boolean outline;
+
+    public AntlrJavaParser() {
+        this(false, false);
+    }
+
+    public AntlrJavaParser(boolean lean, boolean releaseTokens) {
+        this(lean, releaseTokens, false);
+    }
+
+    /**
+     * With lean, the parse trees are trimmed by {@link LeanAntlrTrees}, which also releases the lexer if
+     * releaseTokens is set. With outline, method bodies are blanked by {@link OutlineFilter} before lexing.
+     */
+    public AntlrJavaParser(boolean lean, boolean releaseTokens, boolean outline) {
+        this.lean = lean;
+        this.releaseTokens = releaseTokens;
+        this.outline = outline;
+    }
+
+    @Override
+    public String getName() {
+        return outline ? "AntlrOutline" : lean ? "AntlrLean" : "Antlr";
+    }
+
+    @Override
+    public String getVersion() {
+        return "antlr-" + RuntimeMetaData.VERSION + "-" + sha256(JavaParser._serializedATN.getBytes(StandardCharsets.UTF_8)).substring(0, 16)
+                + (lean ? "-lean" : "") + (outline ? "-outline" : "");
+    }
+
+    @Override
     public JavaParser.CompilationUnitContext parse(String input) {
+        JavaParser.CompilationUnitContext parseTree = parse(createLexer(outline ? OutlineFilter.apply(input) : input));
+        return lean ? LeanAntlrTrees.trim(parseTree, releaseTokens) : parseTree;
+    }
+
+    /**
+     * Parses the tokens of a token source, e.g., a {@link ListTokenSource} over the result of {@link #lex}, so that
+     * lexing and parsing can be measured separately.
+     */
+    public JavaParser.CompilationUnitContext parse(TokenSource tokenSource) {
+        return createParser(tokenSource).compilationUnit();
+    }
+
+    /**
+     * Parses a body with the block or constructor body rule, and converts it into the given AST.
+     */
+    @Override
+    public Block parseBody(String body, Kind kind, AST ast) {
+        JavaParser parser = createParser(createLexer(body));
+        ParserRuleContext parseTree = kind == Kind.CONSTRUCTOR ? parser.constructorBody() : parser.block();
+        return (Block) parseTree.accept(new AntlrToJavaParseTreeVisitor(ast));
+    }
+
+    public List<? extends Token> lex(String input) {
+        return createLexer(outline ? OutlineFilter.apply(input) : input).getAllTokens();
+    }
+
+    private static JavaParser createParser(TokenSource tokenSource) {
+        JavaParser parser = new JavaParser(new CommonTokenStream(tokenSource));
+        parser.removeErrorListeners();
+        parser.addErrorListener(new ThrowingErrorListener());
+        parser.addParseListener(new InterruptListener());
+        return parser;
+    }
+
+    private static JavaLexer createLexer(String input) {
         CharStream charStream = CharStreams.fromString(input);
         JavaLexer lexer = new JavaLexer(charStream);
         lexer.removeErrorListeners();
         lexer.addErrorListener(new ThrowingErrorListener());
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        JavaParser parser = new JavaParser(tokens);
-        parser.removeErrorListeners();
-        parser.addErrorListener(new ThrowingErrorListener());
-        return parser.compilationUnit();
+        return lexer;
+    }
+
+    @Override
+    public CompilationUnit convert(JavaParser.CompilationUnitContext parseTree) {
+        return (CompilationUnit) parseTree.accept(new AntlrToJavaParseTreeVisitor());
+    }
+
+    @Override
+    public boolean isOutline() {
+        return outline;
+    }
+
+    @Override
+    public int countNodes(JavaParser.CompilationUnitContext parseTree) {
+        return Utils.countNodes(parseTree);
     }
 
 
@@ -28,8 +120,33 @@ public class AntlrJavaParser {
 
         @Override
         public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) {
-            System.out.println(msg + " line: " + line + " column: " + charPositionInLine);
-            throw new ParseCancellationException();
+            // Not printed, as stdout is the response channel of ParseDaemon
+            throw new ParseCancellationException(msg + " line: " + line + " column: " + charPositionInLine);
+        }
+    }
+
+    /**
+     * Cancels the parse at the next rule once the parsing thread is interrupted, e.g., by {@link GuardedParser}.
+     */
+    static class InterruptListener implements ParseTreeListener {
+
+        @Override
+        public void enterEveryRule(ParserRuleContext ctx) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new ParseCancellationException("Parse interrupted");
+            }
+        }
+
+        @Override
+        public void visitTerminal(TerminalNode node) {
+        }
+
+        @Override
+        public void visitErrorNode(ErrorNode node) {
+        }
+
+        @Override
+        public void exitEveryRule(ParserRuleContext ctx) {
         }
     }
 
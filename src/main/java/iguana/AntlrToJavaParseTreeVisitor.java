@@ -18,7 +18,18 @@ import static java.util.stream.Collectors.toList;
 
 public class AntlrToJavaParseTreeVisitor extends JavaParserBaseVisitor<ASTNode> {
 
-    private AST ast = AST.newAST(AST.JLS10);
+    private AST ast;
+
+    public AntlrToJavaParseTreeVisitor() {
+        this(AST.newAST(AST.JLS10));
+    }
+
+    /**
+     * Creates the nodes in the given AST, e.g., to replace a subtree of an existing CompilationUnit.
+     */
+    public AntlrToJavaParseTreeVisitor(AST ast) {
+        this.ast = ast;
+    }
 
     @Override
     public CompilationUnit visitCompilationUnit(JavaParser.CompilationUnitContext ctx) {
@@ -515,6 +526,26 @@ public class AntlrToJavaParseTreeVisitor extends JavaParserBaseVisitor<ASTNode>
         }
     }
 
+    @Override
+    public Expression visitPrimaryExpr(JavaParser.PrimaryExprContext ctx) {
+        ParseTree child = ctx.getChild(0);
+        if (child instanceof JavaParser.PrimaryContext) {
+            return (Expression) child.accept(this);
+        }
+        // In a lean tree, see LeanAntlrTrees, a primary with a single child is replaced by that child
+        if (child instanceof TerminalNode) {
+            switch (((TerminalNode) child).getSymbol().getType()) {
+                case JavaLexer.THIS:
+                    return ast.newThisExpression();
+                case JavaLexer.SUPER:
+                    return ast.newSuperFieldAccess();
+                default:
+                    return getIdentifier((TerminalNode) child);
+            }
+        }
+        return (Expression) child.accept(this);
+    }
+
     @Override
     public ArrayAccess visitArrayAccessExpr(JavaParser.ArrayAccessExprContext ctx) {
         ArrayAccess arrayAccess = ast.newArrayAccess();
@@ -708,10 +739,8 @@ public class AntlrToJavaParseTreeVisitor extends JavaParserBaseVisitor<ASTNode>
             StringLiteral stringLiteral = ast.newStringLiteral();
             stringLiteral.setEscapedValue(ctx.STRING_LITERAL().getText());
             return stringLiteral;
-        } else if (ctx.integerLiteral() != null) {
-            return ast.newNumberLiteral(ctx.integerLiteral().getText());
-        } else { // float literal
-            return ast.newNumberLiteral(ctx.floatLiteral().getText());
+        } else { // integer or float literal, or its token in a lean tree
+            return ast.newNumberLiteral(ctx.getChild(0).getText());
         }
     }
 
@@ -0,0 +1,18 @@
+package iguana;
+
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.Block;
+
+/**
+ * Parses the body of a method, constructor or initializer on its own, see {@link LazyCompilationUnit}.
+ */
+public interface BodyParser {
+
+    enum Kind {METHOD, CONSTRUCTOR, INITIALIZER}
+
+    /**
+     * Parses a body, including its braces, and converts it to a block of the given AST.
+     */
+    Block parseBody(String body, Kind kind, AST ast);
+
+}
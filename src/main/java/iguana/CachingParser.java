@@ -0,0 +1,137 @@
+package iguana;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static iguana.Utils.getUtf8Length;
+import static iguana.Utils.sha256;
+
+/**
+ * Caches the parse trees and JDT conversions of a parser by the SHA-256 of the input and the parser version, so
+ * that unchanged sources are parsed and converted only once. The cache is bounded by an estimate of the retained
+ * bytes, a number of bytes per UTF-8 byte of input measured with RetainedSizeBenchmark on AllInOne7.java. Failed
+ * parses are not cached. The statistics of a parse tree from the cache are not those of the last parse of the
+ * parser, so they are replaced by {"cached": 1}. The version of the parser is computed once, when the cache is
+ * created.
+ *
+ * The cached parse trees and CompilationUnits are returned to every caller that parses the same input, so they are
+ * shared and must be treated as read-only: a caller that modifies a CompilationUnit, e.g., with an ASTRewrite, has
+ * to work on a copy made with {@link org.eclipse.jdt.core.dom.ASTNode#copySubtree}. The bodies of a cached
+ * {@link LazyCompilationUnit} are still parsed on first access, which it synchronizes itself.
+ *
+ * ParseDaemon caches parses with -Diguana.cacheMB=[size].
+ */
+public class CachingParser<T> implements JavaSourceParser<T> {
+
+    private static final Map<String, Integer> PARSE_TREE_BYTES_PER_SOURCE_BYTE = new HashMap<>();
+
+    static {
+        PARSE_TREE_BYTES_PER_SOURCE_BYTE.put("Iguana", 64);
+        PARSE_TREE_BYTES_PER_SOURCE_BYTE.put("IguanaCompact", 20);
+        PARSE_TREE_BYTES_PER_SOURCE_BYTE.put("Antlr", 36);
+        PARSE_TREE_BYTES_PER_SOURCE_BYTE.put("AntlrLean", 27);
+        PARSE_TREE_BYTES_PER_SOURCE_BYTE.put("EclipseJDT", 17);
+    }
+
+    private static final int COMPILATION_UNIT_BYTES_PER_SOURCE_BYTE = 15;
+
+    private final JavaSourceParser<T> parser;
+
+    private final ParseCache<T> cache;
+
+    private final int bytesPerSourceByte;
+
+    private final String version;
+
+    /**
+     * The result of the last parse of the parser, to which its statistics refer.
+     */
+    private T lastParseTree;
+
+    public CachingParser(JavaSourceParser<T> parser, long maxBytes) {
+        this.parser = parser;
+        this.cache = new ParseCache<>(maxBytes);
+        this.bytesPerSourceByte = PARSE_TREE_BYTES_PER_SOURCE_BYTE.getOrDefault(parser.getName(), 64);
+        this.version = parser.getVersion();
+    }
+
+    /**
+     * Returns the parser, cached if -Diguana.cacheMB is set.
+     */
+    public static <T> JavaSourceParser<T> cache(JavaSourceParser<T> parser) {
+        long maxBytes = Long.getLong("iguana.cacheMB", 0) * 1024 * 1024;
+        return maxBytes > 0 ? new CachingParser<>(parser, maxBytes) : parser;
+    }
+
+    public JavaSourceParser<T> getParser() {
+        return parser;
+    }
+
+    public ParseCache<T> getCache() {
+        return cache;
+    }
+
+    @Override
+    public String getName() {
+        return parser.getName();
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public T parse(String input) {
+        String key = version + ":" + sha256(input.getBytes(StandardCharsets.UTF_8));
+        ParseCache.Entry<T> entry = cache.get(key);
+        if (entry != null) {
+            return entry.getParseTree();
+        }
+
+        T parseTree = parser.parse(input);
+        lastParseTree = parseTree;
+        if (parseTree != null) {
+            int length = (int) getUtf8Length(input);
+            cache.put(key, parseTree, length, (long) bytesPerSourceByte * length);
+        }
+        return parseTree;
+    }
+
+    @Override
+    public CompilationUnit convert(T parseTree) {
+        ParseCache.Entry<T> entry = cache.get(parseTree);
+        if (entry != null && entry.getCompilationUnit() != null) {
+            return entry.getCompilationUnit();
+        }
+
+        CompilationUnit compilationUnit = parser.convert(parseTree);
+        if (entry != null && compilationUnit != parseTree) {
+            cache.setCompilationUnit(entry, compilationUnit, (long) COMPILATION_UNIT_BYTES_PER_SOURCE_BYTE * entry.getLength());
+        }
+        return compilationUnit;
+    }
+
+    @Override
+    public int countNodes(T parseTree) {
+        return parser.countNodes(parseTree);
+    }
+
+    @Override
+    public Map<String, Long> getStatistics(T parseTree) {
+        if (parseTree != lastParseTree) {
+            return Collections.singletonMap("cached", 1L);
+        }
+        return parser.getStatistics(parseTree);
+    }
+
+    @Override
+    public boolean isOutline() {
+        return parser.isOutline();
+    }
+
+}
@@ -0,0 +1,65 @@
+package iguana;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.iguana.parsetree.ParseTreeNode;
+
+import java.util.Map;
+
+/**
+ * Parses with {@link IguanaJavaParser} and returns the result as a {@link CompactParseTree}, for keeping many
+ * parse results alive.
+ */
+public class CompactIguanaJavaParser implements JavaSourceParser<CompactParseTree> {
+
+    private final IguanaJavaParser parser;
+
+    public CompactIguanaJavaParser() {
+        this(new IguanaJavaParser());
+    }
+
+    public CompactIguanaJavaParser(IguanaJavaParser parser) {
+        this.parser = parser;
+    }
+
+    @Override
+    public String getName() {
+        return "IguanaCompact";
+    }
+
+    @Override
+    public String getVersion() {
+        return parser.getVersion() + "-compact";
+    }
+
+    @Override
+    public CompactParseTree parse(String input) {
+        String text = parser.getPreprocessing().apply(input);
+        ParseTreeNode parseTree = parser.parsePreprocessed(text);
+        return parseTree == null ? null : CompactParseTree.of(parseTree, text);
+    }
+
+    @Override
+    public CompilationUnit convert(CompactParseTree parseTree) {
+        return new CompactIguanaToJavaParseTreeVisitor().convert(parseTree);
+    }
+
+    @Override
+    public boolean isOutline() {
+        return parser.isOutline();
+    }
+
+    @Override
+    public int countNodes(CompactParseTree parseTree) {
+        return parseTree.size();
+    }
+
+    @Override
+    public Map<String, Long> getStatistics(CompactParseTree parseTree) {
+        Map<String, Long> statistics = parser.getStatistics(null);
+        if (parseTree != null) {
+            statistics.put("parseTreeNodes", (long) parseTree.size());
+        }
+        return statistics;
+    }
+
+}
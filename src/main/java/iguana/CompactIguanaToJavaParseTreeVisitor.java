@@ -0,0 +1,170 @@
+package iguana;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The conversion of {@link IguanaToJavaConverter} for a {@link CompactParseTree}, whose nodes are passed by their
+ * index. Nodes without a case of their own are converted like Iguana's default visitor does: a star or plus node to
+ * the list of the non-null results of its children, in which the results of group nodes are flattened, an opt node
+ * to the result of its child or null, an alt node to the result of its child, and any other node to the only
+ * non-null result of its children, to the list of them if there are more, or to null.
+ */
+public class CompactIguanaToJavaParseTreeVisitor extends IguanaToJavaConverter<Integer> implements CompactParseTreeVisitor<Object> {
+
+    private CompactParseTree tree;
+
+    public CompilationUnit convert(CompactParseTree tree) {
+        this.tree = tree;
+        return (CompilationUnit) tree.accept(this);
+    }
+
+    @Override
+    public Object visitNonterminalNode(CompactParseTree tree, int node) {
+        this.tree = tree;
+        return convertNonterminal(node);
+    }
+
+    @Override
+    public Object visitTerminalNode(CompactParseTree tree, int node) {
+        this.tree = tree;
+        return convertTerminal(node);
+    }
+
+    @Override
+    public Object visitMetaSymbolNode(CompactParseTree tree, int node) {
+        this.tree = tree;
+        switch (tree.getKind(node)) {
+            case CompactParseTree.STAR: {
+                List<Object> results = new ArrayList<>();
+                for (int child = tree.getFirstChild(node); child != -1; child = tree.getNextSibling(child)) {
+                    Object result = tree.visit(child, this);
+                    if (result == null) {
+                        continue;
+                    }
+                    if (tree.getKind(child) == CompactParseTree.GROUP && result instanceof GroupResult) {
+                        results.addAll((GroupResult) result);
+                    } else {
+                        results.add(result);
+                    }
+                }
+                return results;
+            }
+
+            case CompactParseTree.OPT:
+            case CompactParseTree.ALT:
+                return tree.getFirstChild(node) == -1 ? null : tree.visit(tree.getFirstChild(node), this);
+
+            case CompactParseTree.GROUP: {
+                List<Object> results = getChildResults(node);
+                if (results.size() > 1) {
+                    return new GroupResult(results);
+                }
+                return results.isEmpty() ? null : results.get(0);
+            }
+
+            default:
+                return visitDefault(node);
+        }
+    }
+
+    @Override
+    public Object visitAmbiguityNode(CompactParseTree tree, int node) {
+        this.tree = tree;
+        throw ambiguity(node);
+    }
+
+    @Override
+    protected Object visit(Integer node) {
+        return tree.visit(node, this);
+    }
+
+    @Override
+    protected Object visitDefault(Integer node) {
+        List<Object> results = getChildResults(node);
+        if (results.size() > 1) {
+            return results;
+        }
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    @Override
+    protected Integer child(Integer node, int i) {
+        return tree.getChild(node, i);
+    }
+
+    @Override
+    protected int childCount(Integer node) {
+        return tree.getChildCount(node);
+    }
+
+    @Override
+    protected Iterable<Integer> children(Integer node) {
+        int firstChild = tree.getFirstChild(node);
+        return () -> new Iterator<Integer>() {
+
+            private int next = firstChild;
+
+            @Override
+            public boolean hasNext() {
+                return next != -1;
+            }
+
+            @Override
+            public Integer next() {
+                if (next == -1) {
+                    throw new NoSuchElementException();
+                }
+                int child = next;
+                next = tree.getNextSibling(child);
+                return child;
+            }
+        };
+    }
+
+    @Override
+    protected boolean hasChild(Integer node, String name) {
+        return tree.hasChild(node, name);
+    }
+
+    @Override
+    protected String name(Integer node) {
+        return tree.getName(node);
+    }
+
+    @Override
+    protected String label(Integer node) {
+        return tree.getLabel(node);
+    }
+
+    @Override
+    protected String text(Integer node) {
+        return tree.getText(node);
+    }
+
+    private List<Object> getChildResults(int node) {
+        List<Object> results = new ArrayList<>();
+        for (int child = tree.getFirstChild(node); child != -1; child = tree.getNextSibling(child)) {
+            Object result = tree.visit(child, this);
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The results of a group node, which are flattened into the results of an enclosing star or plus node.
+     */
+    private static class GroupResult extends ArrayList<Object> {
+
+        GroupResult(List<Object> results) {
+            super(results);
+        }
+    }
+
+}
@@ -0,0 +1,355 @@
+package iguana;
+
+import org.iguana.grammar.symbol.Alt;
+import org.iguana.grammar.symbol.Group;
+import org.iguana.grammar.symbol.Opt;
+import org.iguana.grammar.symbol.Plus;
+import org.iguana.grammar.symbol.Rule;
+import org.iguana.grammar.symbol.Star;
+import org.iguana.parsetree.AmbiguityNode;
+import org.iguana.parsetree.MetaSymbolNode;
+import org.iguana.parsetree.NonterminalNode;
+import org.iguana.parsetree.ParseTreeNode;
+import org.iguana.parsetree.TerminalNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An Iguana parse tree stored in parallel int arrays instead of one object per node. A node is identified by its
+ * index in preorder, the root is 0, and its kind, grammar definition, extent, first child and next sibling are
+ * found at that index. The grammar definitions are shared with the parser, and the text of a node is a substring
+ * of the input, so the tree retains about 20 bytes per node plus the input.
+ *
+ * The kind of a meta symbol node tells the regular expression it matched, see {@link #STAR}, {@link #OPT}, etc.
+ */
+public class CompactParseTree {
+
+    public static final byte NONTERMINAL = 0;
+    public static final byte TERMINAL = 1;
+    public static final byte AMBIGUITY = 2;
+    public static final byte STAR = 3;
+    public static final byte OPT = 4;
+    public static final byte GROUP = 5;
+    public static final byte ALT = 6;
+    public static final byte META_SYMBOL = 7;
+
+    private final String input;
+
+    private final Object[] definitions;
+
+    private final String[] names;
+
+    private final byte[] kinds;
+
+    private final int[] symbols;
+
+    private final int[] starts;
+
+    private final int[] ends;
+
+    private final int[] firstChildren;
+
+    private final int[] nextSiblings;
+
+    private CompactParseTree(Builder builder) {
+        int size = builder.size;
+        this.input = builder.input;
+        this.definitions = builder.definitions.toArray();
+        this.names = builder.names.toArray(new String[0]);
+        this.kinds = Arrays.copyOf(builder.kinds, size);
+        this.symbols = Arrays.copyOf(builder.symbols, size);
+        this.starts = Arrays.copyOf(builder.starts, size);
+        this.ends = Arrays.copyOf(builder.ends, size);
+        this.firstChildren = Arrays.copyOf(builder.firstChildren, size);
+        this.nextSiblings = Arrays.copyOf(builder.nextSiblings, size);
+    }
+
+    /**
+     * Copies a parse tree of the given input, after which the parse tree can be dropped.
+     */
+    public static CompactParseTree of(ParseTreeNode root, String input) {
+        Builder builder = new Builder(input);
+        builder.add(root);
+        return new CompactParseTree(builder);
+    }
+
+    public int size() {
+        return kinds.length;
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    public byte getKind(int node) {
+        return kinds[node];
+    }
+
+    public String getName(int node) {
+        return names[symbols[node]];
+    }
+
+    public Object getGrammarDefinition(int node) {
+        return definitions[symbols[node]];
+    }
+
+    /**
+     * Returns the label of the rule of a nonterminal node.
+     */
+    public String getLabel(int node) {
+        return ((Rule) definitions[symbols[node]]).getLabel();
+    }
+
+    public int getStart(int node) {
+        return starts[node];
+    }
+
+    public int getEnd(int node) {
+        return ends[node];
+    }
+
+    public String getText(int node) {
+        return input.substring(starts[node], ends[node]);
+    }
+
+    /**
+     * Returns the first child of a node, or -1 if it has none.
+     */
+    public int getFirstChild(int node) {
+        return firstChildren[node];
+    }
+
+    /**
+     * Returns the next sibling of a node, or -1 if it is the last child.
+     */
+    public int getNextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    public int getChild(int node, int i) {
+        int child = firstChildren[node];
+        for (int j = 0; j < i && child != -1; j++) {
+            child = nextSiblings[child];
+        }
+        if (child == -1) {
+            throw new IndexOutOfBoundsException("Node " + getName(node) + " has no child at " + i);
+        }
+        return child;
+    }
+
+    public int getChildCount(int node) {
+        int count = 0;
+        for (int child = firstChildren[node]; child != -1; child = nextSiblings[child]) {
+            count++;
+        }
+        return count;
+    }
+
+    public boolean hasChild(int node, String name) {
+        for (int child = firstChildren[node]; child != -1; child = nextSiblings[child]) {
+            if (getName(child).equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public <T> T accept(CompactParseTreeVisitor<T> visitor) {
+        return visit(0, visitor);
+    }
+
+    public <T> T visit(int node, CompactParseTreeVisitor<T> visitor) {
+        switch (kinds[node]) {
+            case NONTERMINAL:
+                return visitor.visitNonterminalNode(this, node);
+            case TERMINAL:
+                return visitor.visitTerminalNode(this, node);
+            case AMBIGUITY:
+                return visitor.visitAmbiguityNode(this, node);
+            default:
+                return visitor.visitMetaSymbolNode(this, node);
+        }
+    }
+
+    /**
+     * Walks the tree without recursion: {@link #firstChild()}, {@link #nextSibling()} and {@link #parent()} move
+     * the cursor and return false, without moving, if there is no such node.
+     */
+    public class Cursor {
+
+        private int node;
+
+        private int[] parents = new int[64];
+
+        private int depth;
+
+        public int getNode() {
+            return node;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public byte getKind() {
+            return kinds[node];
+        }
+
+        public String getName() {
+            return CompactParseTree.this.getName(node);
+        }
+
+        public int getStart() {
+            return starts[node];
+        }
+
+        public int getEnd() {
+            return ends[node];
+        }
+
+        public String getText() {
+            return CompactParseTree.this.getText(node);
+        }
+
+        public boolean firstChild() {
+            int child = firstChildren[node];
+            if (child == -1) {
+                return false;
+            }
+            if (depth == parents.length) {
+                parents = Arrays.copyOf(parents, depth * 2);
+            }
+            parents[depth++] = node;
+            node = child;
+            return true;
+        }
+
+        public boolean nextSibling() {
+            int sibling = nextSiblings[node];
+            if (sibling == -1) {
+                return false;
+            }
+            node = sibling;
+            return true;
+        }
+
+        public boolean parent() {
+            if (depth == 0) {
+                return false;
+            }
+            node = parents[--depth];
+            return true;
+        }
+    }
+
+    private static class Builder {
+
+        private final String input;
+
+        private final List<Object> definitions = new ArrayList<>();
+
+        private final List<String> names = new ArrayList<>();
+
+        private final Map<Object, Integer> symbolIndex = new IdentityHashMap<>();
+
+        private final Map<String, Integer> unnamedSymbolIndex = new HashMap<>();
+
+        private int size;
+
+        private byte[] kinds = new byte[1024];
+
+        private int[] symbols = new int[1024];
+
+        private int[] starts = new int[1024];
+
+        private int[] ends = new int[1024];
+
+        private int[] firstChildren = new int[1024];
+
+        private int[] nextSiblings = new int[1024];
+
+        Builder(String input) {
+            this.input = input;
+        }
+
+        int add(ParseTreeNode node) {
+            if (size == kinds.length) {
+                grow();
+            }
+            int id = size++;
+            kinds[id] = getKind(node);
+            symbols[id] = getSymbol(node);
+            starts[id] = node.getStart();
+            ends[id] = node.getEnd();
+            firstChildren[id] = -1;
+            nextSiblings[id] = -1;
+
+            int previous = -1;
+            for (ParseTreeNode child : node.children()) {
+                int childId = add(child);
+                if (previous == -1) {
+                    firstChildren[id] = childId;
+                } else {
+                    nextSiblings[previous] = childId;
+                }
+                previous = childId;
+            }
+            return id;
+        }
+
+        private int getSymbol(ParseTreeNode node) {
+            Object definition = node.getGrammarDefinition();
+            // The name of a node is that of its grammar definition, which ambiguity nodes may not have
+            if (definition == null) {
+                return unnamedSymbolIndex.computeIfAbsent(node.getName(), name -> addSymbol(null, name));
+            }
+            Integer symbol = symbolIndex.get(definition);
+            if (symbol == null) {
+                symbol = addSymbol(definition, node.getName());
+                symbolIndex.put(definition, symbol);
+            }
+            return symbol;
+        }
+
+        private int addSymbol(Object definition, String name) {
+            definitions.add(definition);
+            names.add(name);
+            return definitions.size() - 1;
+        }
+
+        private static byte getKind(ParseTreeNode node) {
+            if (node instanceof NonterminalNode) return NONTERMINAL;
+            if (node instanceof TerminalNode) return TERMINAL;
+            if (node instanceof AmbiguityNode) return AMBIGUITY;
+            if (node instanceof MetaSymbolNode) {
+                Object symbol = node.getGrammarDefinition();
+                if (symbol instanceof Star || symbol instanceof Plus) return STAR;
+                if (symbol instanceof Opt) return OPT;
+                if (symbol instanceof Group) return GROUP;
+                if (symbol instanceof Alt) return ALT;
+                return META_SYMBOL;
+            }
+            throw new RuntimeException("Unknown parse tree node: " + node.getClass());
+        }
+
+        private void grow() {
+            int capacity = kinds.length * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            symbols = Arrays.copyOf(symbols, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package iguana;
+
+/**
+ * Visits the nodes of a {@link CompactParseTree}, which are passed by their index. The children of a node are
+ * visited with {@link CompactParseTree#visit}.
+ */
+public interface CompactParseTreeVisitor<T> {
+
+    T visitNonterminalNode(CompactParseTree tree, int node);
+
+    T visitTerminalNode(CompactParseTree tree, int node);
+
+    T visitMetaSymbolNode(CompactParseTree tree, int node);
+
+    default T visitAmbiguityNode(CompactParseTree tree, int node) {
+        throw new RuntimeException("Unexpected ambiguity in " + tree.getName(node));
+    }
+
+}
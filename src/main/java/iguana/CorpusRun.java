@@ -0,0 +1,53 @@
+package iguana;
+
+import iguana.jfr.FlightRecording;
+import iguana.jfr.FlightRecordings;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static iguana.Utils.getFiles;
+import static iguana.Utils.getProjectRelativePath;
+import static iguana.Utils.getSourceDir;
+
+/**
+ * Processes all Java files of a project in the source folder on the current thread. With -Diguana.jfr=[dir], a
+ * flight recording of the whole run, or of every file with -Diguana.jfr.perFile=true, is written to that
+ * directory. With -Diguana.results=[file], a record per file is written to that file, and with
+ * -Diguana.metrics=[file] the {@link Metrics} are written periodically to that file. With -Diguana.triage=[dir],
+ * the slowest and most allocating files are written to that directory, see {@link Triage}.
+ */
+public class CorpusRun {
+
+    public static <T> int run(JavaSourceParser<T> parser, String projectName) throws IOException {
+        FileProcessor<T> processor = new FileProcessor<>(parser);
+
+        List<Path> files = getFiles(getSourceDir() + "/" + projectName, ".java");
+
+        int count = 0;
+
+        boolean perFile = FlightRecordings.isPerFile();
+        FlightRecording recording = perFile ? null : FlightRecordings.start();
+
+        try (ResultWriter results = ResultWriter.fromProperties(); MetricsExporter metrics = MetricsExporter.fromProperties()) {
+            for (Path path : files) {
+                FlightRecording fileRecording = perFile ? FlightRecordings.start() : null;
+                FileResult result = processor.process(path);
+                if (result.isSuccess()) {
+                    count++;
+                }
+                if (results != null) {
+                    results.write(result);
+                }
+                FlightRecordings.stop(fileRecording, parser.getName() + "_" + projectName + "_" + getProjectRelativePath(path.toString(), projectName));
+            }
+        }
+
+        FlightRecordings.stop(recording, parser.getName() + "_" + projectName);
+        Triage.write();
+
+        return count;
+    }
+
+}
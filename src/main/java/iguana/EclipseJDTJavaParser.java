@@ -0,0 +1,67 @@
+package iguana;
+
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.security.CodeSource;
+
+import static iguana.Utils.getCompilerOptions;
+import static iguana.Utils.newASTParser;
+import static iguana.Utils.newOutlineASTParser;
+import static org.eclipse.jdt.core.JavaCore.COMPILER_SOURCE;
+
+public class EclipseJDTJavaParser implements JavaSourceParser<CompilationUnit> {
+
+    private final boolean outline;
+
+    public EclipseJDTJavaParser() {
+        this(false);
+    }
+
+    /**
+     * With outline, method bodies are skipped by JDT.
+     */
+    public EclipseJDTJavaParser(boolean outline) {
+        this.outline = outline;
+    }
+
+    @Override
+    public String getName() {
+        return outline ? "EclipseJDTOutline" : "EclipseJDT";
+    }
+
+    @Override
+    public String getVersion() {
+        return "jdt-" + getJarName() + "-JLS10-" + getCompilerOptions().get(COMPILER_SOURCE) + (outline ? "-outline" : "");
+    }
+
+    private static String getJarName() {
+        CodeSource codeSource = ASTParser.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null) {
+            return "unknown";
+        }
+        String location = codeSource.getLocation().getPath();
+        return location.substring(location.lastIndexOf('/', location.length() - 2) + 1);
+    }
+
+    @Override
+    public CompilationUnit parse(String input) {
+        return (CompilationUnit) (outline ? newOutlineASTParser(input) : newASTParser(input)).createAST(null);
+    }
+
+    @Override
+    public CompilationUnit convert(CompilationUnit parseTree) {
+        return parseTree;
+    }
+
+    @Override
+    public boolean isOutline() {
+        return outline;
+    }
+
+    @Override
+    public int countNodes(CompilationUnit parseTree) {
+        return Utils.countNodes(parseTree);
+    }
+
+}
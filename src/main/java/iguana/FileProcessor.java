@@ -0,0 +1,203 @@
+package iguana;
+
+import iguana.jfr.FlightRecordings;
+import iguana.jfr.Phase;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static iguana.Utils.matchesEclipseJDT;
+
+/**
+ * Reads, parses and optionally converts and verifies one file at a time, emitting a JFR event per phase. Conversion
+ * and verification are enabled with the system properties iguana.convert and iguana.verify. Parses cancelled by a
+ * {@link GuardedParser} are recorded as timeouts. Parse tree nodes and parser statistics are collected, outside of
+ * the measured phases, when results are written with -Diguana.results. A conversion or verification that throws,
+ * e.g., on an ambiguity or on a lazily parsed body with a syntax error, fails the file like a parse that throws.
+ * The phase times, the number of files, bytes, failures and timeouts, and the CPU time and allocated bytes per file
+ * are recorded in {@link Metrics}, and the outliers in {@link Triage}.
+ */
+public class FileProcessor<T> {
+
+    private final JavaSourceParser<T> parser;
+
+    private final boolean convert;
+
+    private final boolean verify;
+
+    private final boolean countNodes;
+
+    private final Metrics.Timer readTimer;
+    private final Metrics.Timer decodeTimer;
+    private final Metrics.Timer parseTimer;
+    private final Metrics.Timer convertTimer;
+    private final Metrics.Timer verifyTimer;
+
+    private final Metrics.Counter files;
+    private final Metrics.Counter bytes;
+    private final Metrics.Counter failures;
+    private final Metrics.Counter timeouts;
+    private final Metrics.Counter cpuNanos;
+    private final Metrics.Counter allocatedBytes;
+
+    public FileProcessor(JavaSourceParser<T> parser) {
+        this(parser, Boolean.getBoolean("iguana.convert") || Boolean.getBoolean("iguana.verify"), Boolean.getBoolean("iguana.verify"), ResultWriter.isEnabled());
+    }
+
+    public FileProcessor(JavaSourceParser<T> parser, boolean convert, boolean verify) {
+        this(parser, convert, verify, false);
+    }
+
+    public FileProcessor(JavaSourceParser<T> parser, boolean convert, boolean verify, boolean countNodes) {
+        this.parser = parser;
+        this.convert = convert;
+        this.verify = verify;
+        this.countNodes = countNodes;
+
+        String name = parser.getName();
+        this.readTimer = Metrics.timer("read", name);
+        this.decodeTimer = Metrics.timer("decode", name);
+        this.parseTimer = Metrics.timer("parse", name);
+        this.convertTimer = Metrics.timer("convert", name);
+        this.verifyTimer = Metrics.timer("verify", name);
+        this.files = Metrics.counter("files", name);
+        this.bytes = Metrics.counter("bytes", name);
+        this.failures = Metrics.counter("failures", name);
+        this.timeouts = Metrics.counter("timeouts", name);
+        this.cpuNanos = Metrics.counter("cpu_nanos", name);
+        this.allocatedBytes = Metrics.counter("allocated_bytes", name);
+    }
+
+    public FileResult process(Path path) throws IOException {
+        String fileName = path.toString();
+
+        Phase readEvent = FlightRecordings.newReadEvent();
+        readEvent.begin();
+        long start = System.nanoTime();
+        byte[] content = Files.readAllBytes(path);
+        long readEnd = System.nanoTime();
+        String input = new String(content, StandardCharsets.UTF_8);
+        long readNanos = System.nanoTime() - start;
+        readEvent.end(parser.getName(), fileName, content.length, "success");
+        readTimer.record(readEnd - start);
+        decodeTimer.record(start + readNanos - readEnd);
+
+        FileResult result = process(fileName, input, content.length);
+        result.setReadNanos(readNanos);
+        return result;
+    }
+
+    /**
+     * Processes a file that has already been read.
+     */
+    public FileResult process(String fileName, String input) {
+        return process(fileName, input, Utils.getUtf8Length(input));
+    }
+
+    /**
+     * Processes a file that has already been read from the given number of bytes.
+     */
+    public FileResult process(String fileName, String input, long size) {
+        Metrics.registerCurrentThread();
+        long cpuAtStart = Metrics.getCurrentThreadCpuTime();
+        FileResult result = doProcess(fileName, input, size);
+        if (cpuAtStart >= 0) {
+            cpuNanos.add(Metrics.getCurrentThreadCpuTime() - cpuAtStart);
+        }
+        if (result.getAllocatedBytes() > 0) {
+            allocatedBytes.add(result.getAllocatedBytes());
+        }
+        files.increment();
+        bytes.add(size);
+        if (result.getOutcome() == FileResult.Outcome.TIMEOUT) {
+            timeouts.increment();
+        } else if (!result.isSuccess()) {
+            failures.increment();
+        }
+        Triage.record(result);
+        return result;
+    }
+
+    private FileResult doProcess(String fileName, String input, long size) {
+        FileResult result = new FileResult(fileName, parser.getName(), size);
+        long allocatedAtStart = Metrics.getCurrentThreadAllocatedBytes();
+
+        Phase parseEvent = FlightRecordings.newParseEvent();
+        parseEvent.begin();
+        long start = System.nanoTime();
+        T parseTree = null;
+        try {
+            parseTree = parser.parse(input);
+            result.setOutcome(parseTree != null ? FileResult.Outcome.SUCCESS : FileResult.Outcome.FAILURE);
+        } catch (ParseTimeoutException e) {
+            result.setOutcome(FileResult.Outcome.TIMEOUT);
+        } catch (RuntimeException | StackOverflowError e) {
+            result.setOutcome(FileResult.Outcome.FAILURE);
+        }
+        result.setParseNanos(System.nanoTime() - start);
+        parseTimer.record(result.getParseNanos());
+        parseEvent.end(parser.getName(), fileName, size, result.getOutcome().toString());
+
+        if (!result.isSuccess() || !convert) {
+            setAllocatedBytes(result, allocatedAtStart);
+            setTreeStatistics(result, parseTree);
+            return result;
+        }
+
+        Phase convertEvent = FlightRecordings.newConvertEvent();
+        convertEvent.begin();
+        start = System.nanoTime();
+        CompilationUnit compilationUnit = null;
+        try {
+            compilationUnit = parser.convert(parseTree);
+        } catch (ParseTimeoutException e) {
+            result.setOutcome(FileResult.Outcome.TIMEOUT);
+        } catch (RuntimeException | StackOverflowError e) {
+            result.setOutcome(FileResult.Outcome.FAILURE);
+        }
+        result.setConvertNanos(System.nanoTime() - start);
+        convertTimer.record(result.getConvertNanos());
+        convertEvent.end(parser.getName(), fileName, size, result.getOutcome().toString());
+        setAllocatedBytes(result, allocatedAtStart);
+        setTreeStatistics(result, parseTree);
+
+        if (!result.isSuccess() || !verify) {
+            return result;
+        }
+
+        Phase verifyEvent = FlightRecordings.newVerifyEvent();
+        verifyEvent.begin();
+        start = System.nanoTime();
+        try {
+            boolean matches = matchesEclipseJDT(compilationUnit, input, parser.isOutline());
+            result.setOutcome(matches ? FileResult.Outcome.SUCCESS : FileResult.Outcome.MISMATCH);
+        } catch (RuntimeException | StackOverflowError e) {
+            result.setOutcome(FileResult.Outcome.FAILURE);
+        }
+        result.setVerifyNanos(System.nanoTime() - start);
+        verifyTimer.record(result.getVerifyNanos());
+        verifyEvent.end(parser.getName(), fileName, size, result.getOutcome().toString());
+
+        return result;
+    }
+
+    private void setTreeStatistics(FileResult result, T parseTree) {
+        if (!countNodes || result.getOutcome() == FileResult.Outcome.TIMEOUT) {
+            return;
+        }
+        if (parseTree != null) {
+            result.setNodeCount(parser.countNodes(parseTree));
+        }
+        result.setStatistics(parser.getStatistics(parseTree));
+    }
+
+    private void setAllocatedBytes(FileResult result, long allocatedAtStart) {
+        if (allocatedAtStart >= 0) {
+            result.setAllocatedBytes(Metrics.getCurrentThreadAllocatedBytes() - allocatedAtStart);
+        }
+    }
+
+}
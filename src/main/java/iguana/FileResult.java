@@ -0,0 +1,150 @@
+package iguana;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The outcome and phase timings of processing one file.
+ */
+public class FileResult {
+
+    public enum Outcome {
+        SUCCESS, FAILURE, MISMATCH, TIMEOUT;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final String fileName;
+
+    private final String parser;
+
+    private final long bytes;
+
+    private Outcome outcome;
+
+    private long readNanos;
+
+    private long parseNanos;
+
+    private long convertNanos;
+
+    private long verifyNanos;
+
+    private long allocatedBytes = -1;
+
+    private int nodeCount = -1;
+
+    private Map<String, Long> statistics = Collections.emptyMap();
+
+    FileResult(String fileName, String parser, long bytes) {
+        this.fileName = fileName;
+        this.parser = parser;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Returns the result of a file that could not be read or processed.
+     */
+    static FileResult failure(String fileName, String parser) {
+        FileResult result = new FileResult(fileName, parser, 0);
+        result.setOutcome(Outcome.FAILURE);
+        return result;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getParser() {
+        return parser;
+    }
+
+    /**
+     * Returns the size of the file in bytes, as encoded in UTF-8, by which the times and allocations are normalized.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isSuccess() {
+        return outcome == Outcome.SUCCESS;
+    }
+
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    public long getConvertNanos() {
+        return convertNanos;
+    }
+
+    public long getVerifyNanos() {
+        return verifyNanos;
+    }
+
+    /**
+     * Returns the bytes allocated by the parse and conversion, including a parse guarded on another thread, or -1 if
+     * not measured.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the number of parse tree nodes, or -1 if not counted.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns parser specific statistics, such as the sizes of the GLL structures of an Iguana parse.
+     */
+    public Map<String, Long> getStatistics() {
+        return statistics;
+    }
+
+    void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+
+    void setReadNanos(long readNanos) {
+        this.readNanos = readNanos;
+    }
+
+    void setParseNanos(long parseNanos) {
+        this.parseNanos = parseNanos;
+    }
+
+    void setConvertNanos(long convertNanos) {
+        this.convertNanos = convertNanos;
+    }
+
+    void setVerifyNanos(long verifyNanos) {
+        this.verifyNanos = verifyNanos;
+    }
+
+    void setAllocatedBytes(long allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    void setNodeCount(int nodeCount) {
+        this.nodeCount = nodeCount;
+    }
+
+    void setStatistics(Map<String, Long> statistics) {
+        this.statistics = statistics;
+    }
+
+}
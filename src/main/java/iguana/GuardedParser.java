@@ -0,0 +1,214 @@
+package iguana;
+
+import com.sun.management.ThreadMXBean;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs parses on a worker thread under a deadline and a budget of allocated bytes. A parse that exceeds either is
+ * interrupted, which the ANTLR parser checks at every rule and the Iguana parser while it reads its input, see
+ * {@link InterruptibleInput}, so that the parse stops and its structures can be collected. Only if a parse does
+ * not stop within a grace period, as a JDT parse, the worker is stopped (before Java 20) or abandoned, and the
+ * parser is replaced by a new one from the factory. In both cases a {@link ParseTimeoutException} is thrown.
+ *
+ * The CPU time and bytes allocated by a parse on the worker are attributed to the calling thread, see
+ * {@link Metrics#getCurrentThreadAllocatedBytes()}.
+ *
+ * The limits are set in milliseconds with -Diguana.timeout and in MB with -Diguana.maxAllocatedMB. Zero disables
+ * a limit. Note that the budget is on allocated rather than live bytes.
+ */
+public class GuardedParser<T> implements JavaSourceParser<T> {
+
+    private static final long POLL_MILLIS = 10;
+
+    private static final long GRACE_MILLIS = 1000;
+
+    private final Supplier<? extends JavaSourceParser<T>> factory;
+
+    private final long timeoutMillis;
+
+    private final long maxAllocatedBytes;
+
+    private final ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private JavaSourceParser<T> parser;
+
+    private ExecutorService executor;
+
+    private volatile Thread worker;
+
+    public GuardedParser(Supplier<? extends JavaSourceParser<T>> factory, long timeoutMillis, long maxAllocatedBytes) {
+        this.factory = factory;
+        this.timeoutMillis = timeoutMillis;
+        this.maxAllocatedBytes = maxAllocatedBytes;
+        this.parser = factory.get();
+    }
+
+    /**
+     * Returns a parser from the factory, guarded if -Diguana.timeout or -Diguana.maxAllocatedMB is set.
+     */
+    public static <T> JavaSourceParser<T> guard(Supplier<? extends JavaSourceParser<T>> factory) {
+        long timeoutMillis = Long.getLong("iguana.timeout", 0);
+        long maxAllocatedBytes = Long.getLong("iguana.maxAllocatedMB", 0) * 1024 * 1024;
+        if (timeoutMillis <= 0 && maxAllocatedBytes <= 0) {
+            return factory.get();
+        }
+        return new GuardedParser<>(factory, timeoutMillis, maxAllocatedBytes);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static JavaSourceParser<?> guard(String parserName) {
+        return guard(() -> (JavaSourceParser<Object>) JavaSourceParser.forName(parserName));
+    }
+
+    /**
+     * Returns true if the current thread is the worker of a GuardedParser, whose parse can be interrupted.
+     */
+    static boolean isGuardedThread() {
+        return Thread.currentThread() instanceof Worker;
+    }
+
+    @Override
+    public String getName() {
+        return parser.getName();
+    }
+
+    @Override
+    public String getVersion() {
+        return parser.getVersion();
+    }
+
+    @Override
+    public T parse(String input) {
+        if (timeoutMillis <= 0 && maxAllocatedBytes <= 0) {
+            return parser.parse(input);
+        }
+
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Worker(r, "guarded-" + parser.getName());
+                thread.setDaemon(true);
+                worker = thread;
+                return thread;
+            });
+        }
+
+        JavaSourceParser<T> parser = this.parser;
+        AtomicLong allocatedAtStart = new AtomicLong(-1);
+        AtomicLong cpuTimeAtStart = new AtomicLong(-1);
+        CountDownLatch done = new CountDownLatch(1);
+        Future<T> future = executor.submit(() -> {
+            try {
+                cpuTimeAtStart.set(threadBean.getCurrentThreadCpuTime());
+                allocatedAtStart.set(threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()));
+                return parser.parse(input);
+            } finally {
+                done.countDown();
+            }
+        });
+        Thread worker = this.worker;
+        try {
+            return await(future, done, allocatedAtStart, worker);
+        } finally {
+            // Read after the parse completed or was cancelled; an abandoned parse is only counted until now
+            if (allocatedAtStart.get() >= 0) {
+                Metrics.addDelegated(threadBean.getThreadCpuTime(worker.getId()) - cpuTimeAtStart.get(),
+                        threadBean.getThreadAllocatedBytes(worker.getId()) - allocatedAtStart.get());
+            }
+        }
+    }
+
+    private T await(Future<T> future, CountDownLatch done, AtomicLong allocatedAtStart, Thread worker) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (true) {
+            try {
+                return future.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (timeoutMillis > 0 && System.nanoTime() > deadline) {
+                    cancel(future, done);
+                    throw new ParseTimeoutException("Parse exceeded " + timeoutMillis + " ms");
+                }
+                if (maxAllocatedBytes > 0 && allocatedAtStart.get() >= 0 &&
+                    threadBean.getThreadAllocatedBytes(worker.getId()) - allocatedAtStart.get() > maxAllocatedBytes) {
+                    cancel(future, done);
+                    throw new ParseTimeoutException("Parse allocated more than " + maxAllocatedBytes / (1024 * 1024) + " MB");
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            } catch (InterruptedException e) {
+                cancel(future, done);
+                Thread.currentThread().interrupt();
+                throw new ParseTimeoutException("Parse interrupted");
+            }
+        }
+    }
+
+    @Override
+    public CompilationUnit convert(T parseTree) {
+        return parser.convert(parseTree);
+    }
+
+    @Override
+    public int countNodes(T parseTree) {
+        return parser.countNodes(parseTree);
+    }
+
+    @Override
+    public Map<String, Long> getStatistics(T parseTree) {
+        return parser.getStatistics(parseTree);
+    }
+
+    @Override
+    public boolean isOutline() {
+        return parser.isOutline();
+    }
+
+    @SuppressWarnings("deprecation")
+    private void cancel(Future<T> future, CountDownLatch done) {
+        // Interrupts the worker, which stops an ANTLR or Iguana parse at its next check
+        future.cancel(true);
+        try {
+            if (done.await(GRACE_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        System.err.println("A guarded " + parser.getName() + " parse did not stop within " + GRACE_MILLIS + " ms of its interrupt");
+        try {
+            worker.stop();
+        } catch (UnsupportedOperationException e) {
+            // Thread.stop is not supported since Java 20, the worker is left to finish on its own
+        }
+        executor.shutdownNow();
+        executor = null;
+        worker = null;
+        parser = factory.get();
+    }
+
+    private static class Worker extends Thread {
+
+        Worker(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+package iguana;
+
+import iguana.utils.input.Input;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parsetree.ParseTreeNode;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static iguana.Utils.getGrammarName;
+import static iguana.Utils.getIguanaVersion;
+import static iguana.Utils.getJavaGrammar;
+import static iguana.Utils.getPrecedence;
+import static iguana.Utils.getResourceContent;
+import static iguana.Utils.sha256;
+
+/**
+ * Parses with the Java grammar. With -Diguana.layoutPrescan=true, the input is first compacted with
+ * {@link LayoutIndex}, so that the parser sees a single space for every run of whitespace and comments. With
+ * -Diguana.tokenFrontEnd=true, the parser sees the tokens of the ANTLR lexer printed by {@link TokenFrontEnd}, and
+ * with -Diguana.outline=true, the input with method bodies blanked by {@link OutlineFilter}.
+ * The grammar is selected with -Diguana.grammar and -Diguana.precedence, see {@link Utils#getJavaGrammar()}.
+ */
+public class IguanaJavaParser implements JavaSourceParser<ParseTreeNode>, BodyParser {
+
+    public enum Preprocessing {
+        NONE(""),
+        LAYOUT_PRESCAN("-prescan"),
+        TOKEN_FRONT_END("-tokens"),
+        OUTLINE("-outline");
+
+        private final String suffix;
+
+        Preprocessing(String suffix) {
+            this.suffix = suffix;
+        }
+
+        public String apply(String input) {
+            switch (this) {
+                case LAYOUT_PRESCAN: return LayoutIndex.scan(input).compact();
+                case TOKEN_FRONT_END: return TokenFrontEnd.toTokenText(input);
+                case OUTLINE: return OutlineFilter.apply(input);
+                default: return input;
+            }
+        }
+
+        public static Preprocessing fromProperties() {
+            if (Boolean.getBoolean("iguana.outline")) return OUTLINE;
+            if (Boolean.getBoolean("iguana.tokenFrontEnd")) return TOKEN_FRONT_END;
+            if (Boolean.getBoolean("iguana.layoutPrescan")) return LAYOUT_PRESCAN;
+            return NONE;
+        }
+    }
+
+    private final IguanaParser parser;
+
+    private final Preprocessing preprocessing;
+
+    private final String version;
+
+    public IguanaJavaParser() {
+        this(getGrammarName(), getPrecedence(), Preprocessing.fromProperties());
+    }
+
+    public IguanaJavaParser(String grammarName, String precedence, Preprocessing preprocessing) {
+        this(getJavaGrammar(grammarName, precedence), grammarName, precedence, preprocessing);
+    }
+
+    /**
+     * Parses with a grammar built from the grammar resource with the given name and precedence option, which
+     * only identify the grammar in the version.
+     */
+    public IguanaJavaParser(Grammar grammar, String grammarName, String precedence, Preprocessing preprocessing) {
+        this.parser = new IguanaParser(grammar);
+        this.preprocessing = preprocessing;
+        try {
+            this.version = "iguana-" + getIguanaVersion() + "-" + grammarName + "-" + sha256(getResourceContent("/" + grammarName)).substring(0, 16)
+                    + "-" + precedence + preprocessing.suffix;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return preprocessing == Preprocessing.OUTLINE ? "IguanaOutline" : "Iguana";
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public ParseTreeNode parse(String input) {
+        return parsePreprocessed(preprocessing.apply(input));
+    }
+
+    /**
+     * Parses an input to which the preprocessing has already been applied, and to which the extents of the
+     * parse tree refer.
+     */
+    ParseTreeNode parsePreprocessed(String input) {
+        Input in = Input.fromString(input);
+        return parser.getParserTree(GuardedParser.isGuardedThread() ? new InterruptibleInput(in) : in);
+    }
+
+    public Preprocessing getPreprocessing() {
+        return preprocessing;
+    }
+
+    @Override
+    public CompilationUnit convert(ParseTreeNode parseTree) {
+        return (CompilationUnit) parseTree.accept(new IguanaToJavaParseTreeVisitor());
+    }
+
+    /**
+     * Parses a body as the only member of a class, as the parser starts at the compilation unit, and copies the
+     * converted body into the given AST. The body is not preprocessed. Synchronized, as the parser keeps the state
+     * of the last parse.
+     */
+    @Override
+    public synchronized Block parseBody(String body, Kind kind, AST ast) {
+        String member;
+        switch (kind) {
+            case METHOD: member = "void m() "; break;
+            case CONSTRUCTOR: member = "C() "; break;
+            default: member = "";
+        }
+        ParseTreeNode parseTree = parsePreprocessed("class C { " + member + body + " }");
+        if (parseTree == null) {
+            throw new RuntimeException("Could not parse the body: " + body);
+        }
+        TypeDeclaration type = (TypeDeclaration) convert(parseTree).types().get(0);
+        ASTNode declaration = (ASTNode) type.bodyDeclarations().get(0);
+        Block block = declaration instanceof Initializer ? ((Initializer) declaration).getBody() : ((MethodDeclaration) declaration).getBody();
+        return (Block) ASTNode.copySubtree(ast, block);
+    }
+
+    @Override
+    public boolean isOutline() {
+        return preprocessing == Preprocessing.OUTLINE;
+    }
+
+    @Override
+    public int countNodes(ParseTreeNode parseTree) {
+        return Utils.countNodes(parseTree);
+    }
+
+    @Override
+    public Map<String, Long> getStatistics(ParseTreeNode parseTree) {
+        return new IguanaStatistics(parser.getStatistics(), parseTree).toMap();
+    }
+
+}
@@ -0,0 +1,115 @@
+package iguana;
+
+import org.iguana.parsetree.AmbiguityNode;
+import org.iguana.parsetree.ParseTreeNode;
+import org.iguana.util.ParseStatistics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The sizes of the GLL structures (descriptors, GSS and SPPF) built by a parse and of the resulting parse tree.
+ */
+public class IguanaStatistics {
+
+    private final long descriptors;
+
+    private final long gssNodes;
+
+    private final long gssEdges;
+
+    private final long nonterminalNodes;
+
+    private final long intermediateNodes;
+
+    private final long packedNodes;
+
+    private final long terminalNodes;
+
+    private final long ambiguousNodes;
+
+    private final long parseTreeNodes;
+
+    private final long parseTreeAmbiguities;
+
+    public IguanaStatistics(ParseStatistics statistics, ParseTreeNode parseTree) {
+        this.descriptors = statistics.getDescriptorsCount();
+        this.gssNodes = statistics.getGSSNodesCount();
+        this.gssEdges = statistics.getGSSEdgesCount();
+        this.nonterminalNodes = statistics.getNonterminalNodesCount();
+        this.intermediateNodes = statistics.getIntermediateNodesCount();
+        this.packedNodes = statistics.getPackedNodesCount();
+        this.terminalNodes = statistics.getTerminalNodesCount();
+        this.ambiguousNodes = statistics.getAmbiguousNodesCount();
+        this.parseTreeNodes = parseTree == null ? 0 : Utils.countNodes(parseTree);
+        this.parseTreeAmbiguities = parseTree == null ? 0 : countAmbiguities(parseTree);
+    }
+
+    public long getDescriptors() {
+        return descriptors;
+    }
+
+    public long getGSSNodes() {
+        return gssNodes;
+    }
+
+    public long getGSSEdges() {
+        return gssEdges;
+    }
+
+    public long getNonterminalNodes() {
+        return nonterminalNodes;
+    }
+
+    public long getIntermediateNodes() {
+        return intermediateNodes;
+    }
+
+    public long getPackedNodes() {
+        return packedNodes;
+    }
+
+    public long getTerminalNodes() {
+        return terminalNodes;
+    }
+
+    public long getSPPFNodes() {
+        return nonterminalNodes + intermediateNodes + packedNodes + terminalNodes;
+    }
+
+    public long getAmbiguousNodes() {
+        return ambiguousNodes;
+    }
+
+    public long getParseTreeNodes() {
+        return parseTreeNodes;
+    }
+
+    public long getParseTreeAmbiguities() {
+        return parseTreeAmbiguities;
+    }
+
+    public Map<String, Long> toMap() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        map.put("descriptors", descriptors);
+        map.put("gssNodes", gssNodes);
+        map.put("gssEdges", gssEdges);
+        map.put("nonterminalNodes", nonterminalNodes);
+        map.put("intermediateNodes", intermediateNodes);
+        map.put("packedNodes", packedNodes);
+        map.put("terminalNodes", terminalNodes);
+        map.put("ambiguousNodes", ambiguousNodes);
+        map.put("parseTreeNodes", parseTreeNodes);
+        map.put("parseTreeAmbiguities", parseTreeAmbiguities);
+        return map;
+    }
+
+    private static long countAmbiguities(ParseTreeNode node) {
+        long count = node instanceof AmbiguityNode ? 1 : 0;
+        for (ParseTreeNode child : node.children()) {
+            count += countAmbiguities(child);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,1630 @@
+package iguana;
+
+import org.eclipse.jdt.core.dom.*;
+import org.eclipse.jdt.core.dom.Block;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+/**
+ * Converts an Iguana parse tree of the Java grammar to a JDT CompilationUnit. The nodes of the tree are of type N
+ * and read with the methods {@link #visit}, {@link #child}, {@link #children}, {@link #name}, etc., so that the same conversion serves
+ * {@link IguanaToJavaParseTreeVisitor}, which converts ParseTreeNode objects, and
+ * {@link CompactIguanaToJavaParseTreeVisitor}, which converts the nodes of a {@link CompactParseTree} by index.
+ */
+public abstract class IguanaToJavaConverter<N> {
+
+    private AST ast = AST.newAST(AST.JLS10);
+
+    /**
+     * Returns the result of converting a node and its descendants.
+     */
+    protected abstract Object visit(N node);
+
+    /**
+     * Returns the result of a nonterminal node without a case of its own, which is computed from the results of
+     * its children.
+     */
+    protected abstract Object visitDefault(N node);
+
+    protected abstract N child(N node, int i);
+
+    protected abstract int childCount(N node);
+
+    /**
+     * Returns the children of a node in order. Unlike {@link #child}, which may have to walk the siblings before
+     * the child, iterating over all children takes time linear in their number.
+     */
+    protected abstract Iterable<N> children(N node);
+
+    protected abstract boolean hasChild(N node, String name);
+
+    protected abstract String name(N node);
+
+    /**
+     * Returns the label of the rule of a nonterminal node.
+     */
+    protected abstract String label(N node);
+
+    protected abstract String text(N node);
+
+    /**
+     * Returns the exception to throw for an ambiguity node, as the conversion expects a single derivation.
+     */
+    protected RuntimeException ambiguity(N node) {
+        String text = text(node);
+        return new RuntimeException("Unexpected ambiguity in " + name(node) + ": " + (text.length() > 80 ? text.substring(0, 80) + "..." : text));
+    }
+
+    protected Object convertNonterminal(N node) {
+        switch (name(node)) {
+
+            case "CompilationUnit":
+                return visitCompilationUnit(node);
+
+            case "PackageDeclaration":
+                return visitPackageDeclaration(node);
+
+            case "ImportDeclaration":
+                return visitImportDeclaration(node);
+
+            case "NormalClassDeclaration":
+                return visitNormalClassDeclaration(node);
+
+            case "EnumDeclaration":
+                return visitEnumDeclaration(node);
+
+            case "EnumConstant":
+                return visitEnumConstant(node);
+
+            case "NormalInterfaceDeclaration":
+                return visitNormalInterfaceDeclaration(node);
+
+            case "AbstractMethodDeclaration":
+                return visitAbstractMethodDeclaration(node);
+
+            case "AnnotationTypeDeclaration":
+                return visitAnnotationTypeDeclaration(node);
+
+            case "ConstantDeclaration":
+                return visitConstantDeclaration(node);
+
+            case "AnnotationMethodDeclaration":
+                return visitAnnotationMethodDeclaration(node);
+
+            case "Annotation":
+                return visitAnnotation(node);
+
+            case "ElementValueArrayInitializer":
+                return visitElementValueArrayInitializer(node);
+
+            case "ElementValuePair":
+                return visitElementValuePair(node);
+
+            case "FieldDeclaration":
+                return visitFieldDeclaration(node);
+
+            case "VariableDeclarator":
+                return visitVariableDeclarator(node);
+
+            case "MethodDeclaration":
+                return visitMethodDeclaration(node);
+
+            case "Throws":
+                return visitThrows(node);
+
+            case "FormalParameterList":
+                return visitFormalParameterList(node);
+
+            case "FormalParameter":
+                return visitFormalParameter(node);
+
+            case "LastFormalParameter":
+                return visitLastFormalParameter(node);
+
+            case "Result":
+                return visitResult(node);
+
+            case "Block":
+                return visitBlock(node);
+
+            case "LocalVariableDeclarationStatement":
+                return visitLocalVariableDeclarationStatement(node);
+
+            case "Statement":
+                return visitStatement(node);
+
+            case "ForInit":
+                return visitForInit(node);
+
+            case "Resource":
+                return visitResource(node);
+
+            case "SwitchLabel":
+                return visitSwitchLabel(node);
+
+            case "CatchClause":
+                return visitCatchClause(node);
+
+            case "CatchType":
+                return visitCatchType(node);
+
+            case "Finally":
+                return visitFinally(node);
+
+            case "Expression":
+                return visitExpression(node);
+
+            case "ClassInstanceCreationExpression":
+                return visitClassInstanceCreationExpression(node);
+
+            case "TypeDeclSpecifier":
+                return visitTypeDeclSpecifier(node);
+
+            case "TypeArgumentsOrDiamond":
+                return visitTypeArgumentsOrDiamond(node);
+
+            case "TypeArguments":
+                return visitTypeArguments(node);
+
+            case "ClassBody":
+                return visitClassBody(node);
+
+            case "ArrayCreationExpression":
+                return visitArrayCreationExpression(node);
+
+            case "ReferenceTypeNonArrayType":
+                return visitReferenceTypeNonArrayType(node);
+
+            case "ArrayInitializer":
+                return visitArrayInitializer(node);
+
+            case "Primary":
+                return visitPrimary(node);
+
+            case "SuperSuffix":
+                return visitSuperSuffix(node);
+
+            case "MethodInvocation":
+                return visitMethodInvocation(node);
+
+            case "Literal":
+                return visitLiteral(node);
+
+            case "ConstructorDeclaration":
+                return visitConstructorDeclaration(node);
+
+            case "ConstructorBody":
+                return visitConstructorBody(node);
+
+            case "BlockStatement":
+                return visitBlockStatement(node);
+
+            case "ExplicitConstructorInvocation":
+                return visitExplicitConstructorInvocation(node);
+
+            case "Initializer":
+                return visitInitializer(node);
+
+            case "QualifiedIdentifier":
+                return visitQualifiedIdentifier(node);
+
+            case "ArrayType":
+                return visitArrayType(node);
+
+            case "TypeArgument":
+                return visitTypeArgument(node);
+
+            case "TypeParameter":
+                return visitTypeParameter(node);
+
+            case "TypeBound":
+                return visitTypeBound(node);
+
+            case "VariableModifier":
+            case "FieldModifier":
+            case "MethodModifier":
+            case "InterfaceModifier":
+            case "ConstantModifier":
+            case "AbstractMethodModifier":
+            case "ConstructorModifier":
+            case "ClassModifier":
+                return visitModifier(node);
+
+            case "PrimitiveType":
+                return visitPrimitiveType(node);
+
+        }
+
+        return visitDefault(node);
+    }
+
+    protected Object convertTerminal(N node) {
+        if (name(node).equals("Identifier")) {
+            return ast.newSimpleName(text(node));
+        }
+        return null;
+    }
+
+    private Name visitIdentifier(N node) {
+        return ast.newSimpleName(text(child(node, 0)));
+    }
+
+    private PrimitiveType visitPrimitiveType(N node) {
+        return ast.newPrimitiveType(PrimitiveType.toCode(text(node)));
+    }
+
+    private Object visitModifier(N node) {
+        if (hasChild(node, "Annotation")) {
+            return visit(child(node, 0));
+        } else {
+            return ast.newModifier(Modifier.ModifierKeyword.toKeyword(text(node)));
+        }
+    }
+
+    // TypeBound: "extends" {ReferenceType "&"}+
+    private Object visitTypeBound(N node) {
+        return visit(child(node, 1));
+    }
+
+    // Identifier TypeBound?
+    private Object visitTypeParameter(N node) {
+        TypeParameter typeParameter = ast.newTypeParameter();
+
+        typeParameter.setName((SimpleName) visit(child(node, 0)));
+
+        List<Type> typeBounds = (List<Type>) visit(child(node, 1));
+        if (typeBounds != null) {
+            typeParameter.typeBounds().addAll(typeBounds);
+        }
+
+        return typeParameter;
+    }
+
+    private Object visitTypeArgument(N node) {
+        switch (label(node)) {
+            //  Type
+            case "simpleTypeArgument": {
+                return visit(child(node, 0));
+            }
+
+            //  "?" (("extends" | "super") Type)?
+            case "wildCardTypeArgument": {
+                WildcardType wildcardType = ast.newWildcardType();
+                Type type = (Type) visit(child(node, 1));
+                if (type != null) {
+                    String superOrExtends = text(child(child(child(node, 1), 0), 0));
+                    if (superOrExtends.equals("super")) {
+                        wildcardType.setUpperBound(false);
+                    }
+                    wildcardType.setBound(type);
+                }
+                return wildcardType;
+            }
+
+            default:
+                throw new RuntimeException("Unkown TypeArugment: " + text(node));
+        }
+    }
+
+    // (ReferenceTypeNonArrayType | PrimaryType) ("[" "]")+
+    private Type visitArrayType(N node) {
+        Type type = (Type) visit(child(node, 0));
+        int dimensions = getDimensionsSize(child(node, 1));
+        return ast.newArrayType(type, dimensions);
+    }
+
+    // {Identifier "."}+
+    private Name visitQualifiedIdentifier(N node) {
+        List<SimpleName> identifiers = (List<SimpleName>) visit(child(node, 0));
+
+        if (identifiers.size() == 1) {
+            return identifiers.get(0);
+        }
+
+        Name qualifier = identifiers.get(0);
+        SimpleName simpleName = identifiers.get(1);
+        qualifier = ast.newQualifiedName(qualifier, simpleName);
+
+        for (int i = 2; i < identifiers.size(); i++) {
+            simpleName = identifiers.get(i);
+            qualifier = ast.newQualifiedName(qualifier, simpleName);
+        }
+
+        return qualifier;
+    }
+
+    // "static"? Block
+    private Object visitInitializer(N node) {
+        Initializer initializer = ast.newInitializer();
+        if (text(child(node, 0)).length() > 0) {
+            initializer.modifiers().add(ast.newModifier(Modifier.ModifierKeyword.STATIC_KEYWORD));
+        }
+        initializer.setBody((Block) visit(child(node, 1)));
+        return initializer;
+    }
+
+    private Object visitExplicitConstructorInvocation(N node) {
+        switch (label(node)) {
+
+            // NonWildTypeArguments? "this" Arguments ";"
+            case "constructorInvocation": {
+                ConstructorInvocation constructorInvocation = ast.newConstructorInvocation();
+                List<Type> typeArguments = (List<Type>) visit(child(node, 0));
+                if (typeArguments != null) {
+                    constructorInvocation.typeArguments().addAll(typeArguments);
+                }
+
+                constructorInvocation.arguments().addAll((List<Expression>) visit(child(node, 2)));
+                return constructorInvocation;
+            }
+
+            // (Primary ".")? NonWildTypeArguments? "super" Arguments ";"
+            case "superConstructorInvocation": {
+                SuperConstructorInvocation superConstructorInvocation = ast.newSuperConstructorInvocation();
+                List<Type> typeArguments = (List<Type>) visit(child(node, 2));
+                if (typeArguments != null) {
+                    superConstructorInvocation.typeArguments().addAll(typeArguments);
+                }
+
+                Expression expression = (Expression) visit(child(node, 0));
+                if (expression != null) {
+                    superConstructorInvocation.setExpression(expression);
+                }
+
+                superConstructorInvocation.arguments().addAll((List<Expression>) visit(child(node, 3)));
+                return superConstructorInvocation;
+            }
+
+            default:
+                throw new RuntimeException("Unknown constructor type: " + text(node));
+        }
+    }
+
+    private Object visitBlockStatement(N node) {
+        Object result = visit(child(node, 0));
+        // TODO: change it by introducing a nonterminal LocalTypeDeclaration
+        if (result instanceof TypeDeclaration) {
+            return ast.newTypeDeclarationStatement((TypeDeclaration) result);
+        }
+        return result;
+    }
+
+    // "{" ExplicitConstructorInvocation? BlockStatement* "}"
+    private Block visitConstructorBody(N node) {
+        Block block = ast.newBlock();
+        Statement explicitConstructorInvocation = (Statement) visit(child(node, 1));
+        List<Statement> statements = (List<Statement>) visit(child(node, 2));
+        List<Statement> body = new ArrayList<>(statements.size() + 1);
+        if (explicitConstructorInvocation != null) {
+            body.add(explicitConstructorInvocation);
+        }
+        body.addAll(statements);
+        block.statements().addAll(body);
+        return block;
+    }
+
+    // ConstructorModifier* TypeParameters? Identifier "(" FormalParameterList? ")" Throws? ConstructorBody
+    private MethodDeclaration visitConstructorDeclaration(N node) {
+        MethodDeclaration constructorDeclaration = ast.newMethodDeclaration();
+        constructorDeclaration.setConstructor(true);
+        constructorDeclaration.setReturnType2(null);
+        constructorDeclaration.modifiers().addAll(getModifiers(child(node, 0)));
+
+        List<TypeParameter> typeParameters = (List<TypeParameter>) visit(child(node, 1));
+        if (typeParameters != null) {
+            constructorDeclaration.typeParameters().addAll(typeParameters);
+        }
+        constructorDeclaration.setName((SimpleName) visit(child(node, 2)));
+
+        List<SingleVariableDeclaration> formalParameters = (List<SingleVariableDeclaration>) visit(child(node, 4));
+        if (formalParameters != null) {
+            constructorDeclaration.parameters().addAll(formalParameters);
+        }
+
+        List<Type> exceptionTypes = (List<Type>) visit(child(node, 6));
+        if (exceptionTypes != null) {
+            constructorDeclaration.thrownExceptionTypes().addAll(exceptionTypes);
+        }
+
+        constructorDeclaration.setBody((Block) visit(child(node, 7)));
+
+        return constructorDeclaration;
+    }
+
+    private Expression visitLiteral(N node) {
+        switch (label(node)) {
+            case "integerLiteral":
+            case "floatLiteral": {
+                return ast.newNumberLiteral(text(node));
+            }
+
+            case "booleanLiteral": {
+                return ast.newBooleanLiteral(Boolean.parseBoolean(text(node)));
+            }
+
+            case "characterLiteral": {
+                CharacterLiteral characterLiteral = ast.newCharacterLiteral();
+                characterLiteral.setEscapedValue(text(node));
+                return characterLiteral;
+            }
+
+            case "stringLiteral": {
+                StringLiteral stringLiteral = ast.newStringLiteral();
+                stringLiteral.setEscapedValue(text(node));
+                return stringLiteral;
+            }
+
+            case "nullLiteral": {
+                return ast.newNullLiteral();
+            }
+
+            default:
+                throw new RuntimeException("Unknown Literal: " + text(node));
+        }
+    }
+
+    // Identifier Arguments
+    private MethodInvocation visitMethodInvocation(N node) {
+        MethodInvocation methodInvocation = ast.newMethodInvocation();
+        methodInvocation.setName((SimpleName) visit(child(node, 0)));
+        methodInvocation.arguments().addAll((List<Expression>) visit(child(node, 1)));
+        return methodInvocation;
+    }
+
+    // "." NonWildTypeArguments? Identifier Arguments?
+    private Expression visitSuperSuffix(N node) {
+        List<Expression> arguments = (List<Expression>) visit(child(node, 3));
+        if (arguments != null) {
+            SuperMethodInvocation superMethodInvocation = ast.newSuperMethodInvocation();
+            superMethodInvocation.setName(getIdentifier(child(node, 2)));
+            List<Type> typeArguments = (List<Type>) visit(child(node, 1));
+            if (typeArguments != null) {
+                superMethodInvocation.typeArguments().addAll(typeArguments);
+            }
+            superMethodInvocation.arguments().addAll(arguments);
+            return superMethodInvocation;
+        } else {
+            // "." NonWildTypeArguments? Identifier Arguments?
+            SuperFieldAccess superFieldAccess = ast.newSuperFieldAccess();
+            superFieldAccess.setName(getIdentifier(child(node, 2)));
+            return superFieldAccess;
+        }
+    }
+
+    private Expression visitPrimary(N node) {
+        switch (label(node)) {
+
+            case "literalPrimary": {
+                return (Expression) visit(child(node, 0));
+            }
+
+            // (QualifiedIdentifier ".")? "this"
+            case "thisPrimary": {
+                ThisExpression thisExpression = ast.newThisExpression();
+                Name qualifiedIdentifier = (Name) visit(child(node, 0));
+                if (qualifiedIdentifier != null) {
+                    thisExpression.setQualifier(qualifiedIdentifier);
+                }
+                return thisExpression;
+            }
+
+            case "superPrimary": {
+                return (Expression) visit(child(node, 1));
+            }
+
+            case "idPrimary": {
+                return getIdentifier(child(node, 0));
+            }
+
+            case "typeLiteralPrimary": {
+                TypeLiteral typeLiteral = ast.newTypeLiteral();
+                Type type = (Type) visit(child(node, 0));
+                if (type == null) {
+                    type = ast.newPrimitiveType(PrimitiveType.VOID);
+                }
+                typeLiteral.setType(type);
+                return typeLiteral;
+            }
+
+            // "(" Expression ")"
+            case "parExprPrimary": {
+                ParenthesizedExpression parenthesizedExpression = ast.newParenthesizedExpression();
+                parenthesizedExpression.setExpression((Expression) visit(child(node, 1)));
+                return parenthesizedExpression;
+            }
+
+            default:
+                throw new RuntimeException("Unexpected primary " + text(node));
+        }
+    }
+
+    // "{"  {VariableInitializer ","}* ","? "}"
+    private ArrayInitializer visitArrayInitializer(N node) {
+        ArrayInitializer arrayInitializer = ast.newArrayInitializer();
+        arrayInitializer.expressions().addAll((List<Expression>) visit(child(node, 1)));
+        return arrayInitializer;
+    }
+
+    // TypeDeclSpecifier TypeArguments?
+    private Type visitReferenceTypeNonArrayType(N node) {
+        Type type = (Type) visit(child(node, 0));
+        List<Type> typeArguments = (List<Type>) visit(child(node, 1));
+        if (typeArguments != null) {
+            type = ast.newParameterizedType(type);
+            ((ParameterizedType) type).typeArguments().addAll(typeArguments);
+        }
+        return type;
+    }
+
+    /*
+     * ArrayCreationExpression
+     *   = (PrimitiveType | ReferenceType) ("[" Expression "]")+ ("[" "]")*
+     *   | (PrimitiveType | ReferenceTypeNonArrayType) ("[" "]")+ ArrayInitializer
+     */
+    private ArrayCreation visitArrayCreationExpression(N node) {
+        ArrayCreation arrayCreation = ast.newArrayCreation();
+        if (hasChild(node, "ArrayInitializer")) { // Second alternative
+            int dimensions = getDimensionsSize(child(node, 1));
+            arrayCreation.setType(ast.newArrayType((Type) visit(child(node, 0)), dimensions));
+            arrayCreation.setInitializer((ArrayInitializer) visit(child(node, 2)));
+        } else {
+            List<Expression> expressions = (List<Expression>) visit(child(node, 1));
+            int dimensions = getDimensionsSize(child(node, 2)) + expressions.size();
+            arrayCreation.setType(ast.newArrayType((Type) visit(child(node, 0)), dimensions));
+            arrayCreation.dimensions().addAll(expressions);
+        }
+        return arrayCreation;
+    }
+
+    // "{" ClassBodyDeclaration* "}"
+    private List<BodyDeclaration> visitClassBody(N node) {
+        return (List<BodyDeclaration>) visit(child(node, 1));
+    }
+
+    // '<' {TypeArgument ","}+ '>'
+    private Object visitTypeArguments(N node) {
+        return visit(child(node, 1));
+    }
+
+    // TypeArgumentsOrDiamond
+    //        = "<" ">"
+    //        | TypeArguments
+    private Object visitTypeArgumentsOrDiamond(N node) {
+        if (name(child(node, 0)).equals("TypeArguments")) {
+            return visit(child(node, 0));
+        }
+        return emptyList();
+    }
+
+    // TypeDeclSpecifier: Identifier (TypeArguments? "." Identifier)*
+    private Type visitTypeDeclSpecifier(N node) {
+        Type type = ast.newSimpleType((SimpleName) visit(child(node, 0)));
+
+        List<Object> rest = (List<Object>) visit(child(node, 1));
+
+        for (int i = 0; i < rest.size(); i++) {
+            Object n = rest.get(i);
+            if (n instanceof List) { // TypeArguments
+                type = ast.newParameterizedType(type);
+                ((ParameterizedType) type).typeArguments().addAll((List<Type>) n);
+            } else { // Identifier
+                type = ast.newQualifiedType(type, (SimpleName) n);
+            }
+        }
+
+        return type;
+    }
+
+    // TypeArguments? TypeDeclSpecifier TypeArgumentsOrDiamond? Arguments ClassBody?
+    private ClassInstanceCreation visitClassInstanceCreationExpression(N node) {
+        ClassInstanceCreation classInstanceCreation = ast.newClassInstanceCreation();
+
+        List<Type> typeArguments = (List<Type>) visit(child(node, 0));
+        if (typeArguments != null) {
+            classInstanceCreation.typeArguments().addAll(typeArguments);
+        }
+
+        Type type = (Type) visit(child(node, 1));
+        List<Type> typeArgumentsOrDiamond = (List<Type>) visit(child(node, 2));
+        if (typeArgumentsOrDiamond != null) {
+            type = ast.newParameterizedType(type);
+            ((ParameterizedType) type).typeArguments().addAll(typeArgumentsOrDiamond);
+        }
+
+        classInstanceCreation.setType(type);
+        classInstanceCreation.arguments().addAll((List<Expression>) visit(child(node, 3)));
+
+        List<BodyDeclaration> bodyDeclarations = (List<BodyDeclaration>) visit(child(node, 4));
+        if (bodyDeclarations != null) {
+            AnonymousClassDeclaration anonymousClassDeclaration = ast.newAnonymousClassDeclaration();
+            anonymousClassDeclaration.bodyDeclarations().addAll(bodyDeclarations);
+            classInstanceCreation.setAnonymousClassDeclaration(anonymousClassDeclaration);
+        }
+        return classInstanceCreation;
+    }
+
+    private Expression visitExpression(N node) {
+        // Infix expression
+        if (label(node) == null || label(node).equals("comparisonExpr")) {
+            InfixExpression infixExpression = ast.newInfixExpression();
+            infixExpression.setLeftOperand((Expression) visit(child(node, 0)));
+            infixExpression.setRightOperand((Expression) visit(child(node, 2)));
+            infixExpression.setOperator(InfixExpression.Operator.toOperator(text(child(node, 1))));
+            return infixExpression;
+        }
+
+        switch (label(node)) {
+
+            case "fieldAccess":
+                return visitFieldAccess(node);
+
+            case "methodCall":
+                return visitMethodCall(node);
+
+            case "arrayAccess":
+                return visitArrayAccess(node);
+
+            case "postfix":
+                return visitPostfix(node);
+
+            case "prefix":
+                return visitPrefix(node);
+
+            case "newClass":
+                return visitNewClass(node);
+
+            case "primitiveCastExpr":
+                return visitPrimitiveCastExpr(node);
+
+            case "castExpr":
+                return visitCastExpression(node);
+
+            case "instanceOfExpr":
+                return visitInstanceOfExpr(node);
+
+            case "conditionalExpr":
+                return visitConditionalExpr(node);
+
+            case "assignmentExpr":
+                return visitAssignmentExpr(node);
+
+            case "primaryExpr":
+                return visitPrimaryExpr(node);
+
+            default:
+                throw new RuntimeException("Unexpected exception type");
+        }
+    }
+
+    private Expression visitPrimaryExpr(N node) {
+        return (Expression) visit(child(node, 0));
+    }
+
+    // Expression AssignmentOperator Expression
+    private Assignment visitAssignmentExpr(N node) {
+        Assignment assignment = ast.newAssignment();
+        assignment.setLeftHandSide((Expression) visit(child(node, 0)));
+        assignment.setRightHandSide((Expression) visit(child(node, 2)));
+        assignment.setOperator(Assignment.Operator.toOperator(text(child(node, 1))));
+        return assignment;
+    }
+
+    // Expression "?" Expression ":" Expression
+    private ConditionalExpression visitConditionalExpr(N node) {
+        ConditionalExpression conditionalExpression = ast.newConditionalExpression();
+        conditionalExpression.setExpression((Expression) visit(child(node, 0)));
+        conditionalExpression.setThenExpression((Expression) visit(child(node, 2)));
+        conditionalExpression.setElseExpression((Expression) visit(child(node, 4)));
+        return conditionalExpression;
+    }
+
+    // Expression "instanceof" Type
+    private InstanceofExpression visitInstanceOfExpr(N node) {
+        InstanceofExpression instanceofExpression = ast.newInstanceofExpression();
+        instanceofExpression.setLeftOperand((Expression) visit(child(node, 0)));
+        instanceofExpression.setRightOperand((Type) visit(child(node, 2)));
+        return instanceofExpression;
+    }
+
+    // "(" ReferenceType ")" Expression
+    private CastExpression visitCastExpression(N node) {
+        CastExpression castExpression = ast.newCastExpression();
+        castExpression.setType((Type) visit(child(node, 1)));
+        castExpression.setExpression((Expression) visit(child(node, 3)));
+        return castExpression;
+    }
+
+    // "(" Type ")" Expression
+    private CastExpression visitPrimitiveCastExpr(N node) {
+        CastExpression castExpression = ast.newCastExpression();
+        castExpression.setType((Type) visit(child(node, 1)));
+        castExpression.setExpression((Expression) visit(child(node, 3)));
+        return castExpression;
+    }
+
+    // "new" (ClassInstanceCreationExpression | ArrayCreationExpression)
+    private Expression visitNewClass(N node) {
+        return (Expression) visit(child(node, 1));
+    }
+
+    // ("+" !>> "+" | "-" !>> "-" | "++" | "--" | "!" | "~") Expression
+    private Expression visitPrefix(N node) {
+        PrefixExpression prefixExpression = ast.newPrefixExpression();
+        prefixExpression.setOperand((Expression) visit(child(node, 1)));
+        prefixExpression.setOperator(PrefixExpression.Operator.toOperator(text(child(node, 0))));
+        return prefixExpression;
+    }
+
+    // Expression ("++" | "--")
+    private PostfixExpression visitPostfix(N node) {
+        PostfixExpression postfixExpression = ast.newPostfixExpression();
+        postfixExpression.setOperand((Expression) visit(child(node, 0)));
+        postfixExpression.setOperator(PostfixExpression.Operator.toOperator(text(child(node, 1))));
+        return postfixExpression;
+    }
+
+    // Expression "[" Expression "]"
+    private ArrayAccess visitArrayAccess(N node) {
+        ArrayAccess arrayAccess = ast.newArrayAccess();
+        arrayAccess.setArray((Expression) visit(child(node, 0)));
+        arrayAccess.setIndex((Expression) visit(child(node, 2)));
+        return arrayAccess;
+    }
+
+    // MethodInvocation
+    private Expression visitMethodCall(N node) {
+        return (Expression) visit(child(node, 0));
+    }
+
+    // Expression "." Selector
+    private Expression visitFieldAccess(N node) {
+        Expression expression = (Expression) visit(child(node, 0));
+        return getFieldAccess(expression, child(node, 2));
+    }
+
+    private Statement visitStatement(N node) {
+        switch (label(node)) {
+
+            case "blockStmt":
+                return visitBlockStmt(node);
+
+            case "emptyStmt":
+                return visitEmptyStmt(node);
+
+            case "expressionStmt":
+                return visitExpressionStmt(node);
+
+            case "assertStmt":
+                return visitAssertStmt(node);
+
+            case "switchStmt":
+                return visitSwitchStmt(node);
+
+            case "doStmt":
+                return visitDoStmt(node);
+
+            case "breakStmt":
+                return visitBreakStmt(node);
+
+            case "continueStmt":
+                return visitContinueStmt(node);
+
+            case "returnStmt":
+                return visitReturnStatement(node);
+
+            case "synchronizedStmt":
+                return visitSynchronizedStmt(node);
+
+            case "throwStmt":
+                return visitThrowStmt(node);
+
+            case "tryStmt":
+                return visitTryStmt(node);
+
+            case "tryFinally":
+                return visitTryFinally(node);
+
+            case "tryWithResourcesStmt":
+                return visitTryWithResourcesStmt(node);
+
+            case "labelStmt":
+                return visitLabelStmt(node);
+
+            case "ifStmt":
+                return visitIfStmt(node);
+
+            case "ifElseStmt":
+                return visitIfElseStmt(node);
+
+            case "whileStmt":
+                return visitWhileStmt(node);
+
+            case "forStmt":
+                return visitForStmt(node);
+
+            default:
+                throw new RuntimeException("Unknown statement: " + text(node));
+        }
+    }
+
+    // Statement: "finally" Block
+    private Object visitFinally(N node) {
+        return visit(child(node, 1));
+    }
+
+    // {QualifiedIdentifier "|"}+
+    private Type visitCatchType(N node) {
+        List<Type> types = getQualifiedTypes(child(node, 0));
+        if (types.size() == 1) {
+            return types.get(0);
+        }
+        UnionType unionType = ast.newUnionType();
+        unionType.types().addAll(types);
+        return unionType;
+    }
+
+    private List<Type> getQualifiedTypes(N node) {
+        List<Name> qualifiedIdentifiers = (List<Name>) visit(node);
+
+        List<Type> types = new ArrayList<>(qualifiedIdentifiers.size());
+        for (int i = 0; i < qualifiedIdentifiers.size(); i++) {
+            Name name = qualifiedIdentifiers.get(i);
+            types.add(ast.newSimpleType(name));
+        }
+        return types;
+    }
+
+    // CatchClause: "catch" "(" VariableModifier* CatchType Identifier ")" Block
+    private Object visitCatchClause(N node) {
+        CatchClause catchClause = ast.newCatchClause();
+
+        SingleVariableDeclaration singleVariableDeclaration = ast.newSingleVariableDeclaration();
+        singleVariableDeclaration.modifiers().addAll(getModifiers(child(node, 2)));
+        singleVariableDeclaration.setType((Type) visit(child(node, 3)));
+        singleVariableDeclaration.setName((SimpleName) visit(child(node, 4)));
+        catchClause.setException(singleVariableDeclaration);
+
+        catchClause.setBody((Block) visit(child(node, 6)));
+
+        return catchClause;
+    }
+
+    /*
+     * SwitchLabel
+     *   : "case" Expression ":"
+     *   | "default" ":"
+     */
+    private SwitchCase visitSwitchLabel(N node) {
+        SwitchCase switchCase = ast.newSwitchCase();
+        switchCase.setExpression(null); // default case
+        if (childCount(node) == 3) {
+            switchCase.setExpression((Expression) visit(child(node, 1)));
+        }
+        return switchCase;
+    }
+
+    // Resource: VariableModifier* ReferenceType VariableDeclaratorId "=" Expression
+    private VariableDeclarationExpression visitResource(N node) {
+        VariableDeclarationFragment variableDeclarationFragment = ast.newVariableDeclarationFragment();
+        variableDeclarationFragment.setName(getIdentifier(child(child(node, 2), 0)));
+        variableDeclarationFragment.setInitializer((Expression) visit(child(node, 4)));
+
+        VariableDeclarationExpression variableDeclarationExpression = ast.newVariableDeclarationExpression(variableDeclarationFragment);
+        variableDeclarationExpression.modifiers().addAll(getModifiers(child(node, 0)));
+        variableDeclarationExpression.setType((Type) visit(child(node, 1)));
+        return variableDeclarationExpression;
+    }
+
+    private Object visitForInit(N node) {
+        switch (label(node)) {
+            // {Expression ","}+
+            case "expressions": {
+                return visit(child(node, 0));
+            }
+
+            // VariableModifier* Type {VariableDeclarator ","}+
+            case "variableDecl": {
+                List<VariableDeclarationFragment> fragments = (List<VariableDeclarationFragment>) visit(child(node, 2));
+                VariableDeclarationExpression variableDeclarationExpression = ast.newVariableDeclarationExpression(fragments.get(0));
+                variableDeclarationExpression.fragments().addAll(fragments.subList(1, fragments.size()));
+                variableDeclarationExpression.setType((Type) visit(child(node, 1)));
+                variableDeclarationExpression.modifiers().addAll(getModifiers(child(node, 0)));
+                return singletonList(variableDeclarationExpression);
+            }
+
+            default:
+                throw new RuntimeException("Should not reach here");
+        }
+    }
+
+    // Statement: "for" "(" ForControl ")" Statement
+    private Statement visitForStmt(N node) {
+        N forControlNode = child(node, 2);
+
+        switch (label(forControlNode)) {
+
+            // ForInit? ";" Expression? ";" ForUpdate?
+            case "traditionalFor": {
+                ForStatement forStatement = ast.newForStatement();
+
+                List<Expression> forInit = (List<Expression>) visit(child(forControlNode, 0));
+                if (forInit != null) {
+                    forStatement.initializers().addAll(forInit);
+                }
+
+                Expression expression = (Expression) visit(child(forControlNode, 2));
+                if (expression != null) {
+                    forStatement.setExpression(expression);
+                }
+
+                List<Expression> forUpdate = (List<Expression>) visit(child(forControlNode, 4));
+                if (forUpdate != null) {
+                    forStatement.updaters().addAll(forUpdate);
+                }
+
+                Statement statement = (Statement) visit(child(node, 4));
+                forStatement.setBody(statement);
+
+                return forStatement;
+            }
+
+            // FormalParameter ":" Expression
+            case "enhancedFor": {
+                EnhancedForStatement forStatement = ast.newEnhancedForStatement();
+
+                forStatement.setExpression((Expression) visit(child(forControlNode, 2)));
+                SingleVariableDeclaration singleVariableDeclaration = (SingleVariableDeclaration) visit(child(forControlNode, 0));
+                forStatement.setParameter(singleVariableDeclaration);
+
+                forStatement.setBody((Statement) visit(child(node, 4)));
+                return forStatement;
+            }
+
+            default:
+                throw new RuntimeException("Should not reach here");
+        }
+    }
+
+    // Statement: "while" "(" Expression ")" Statement
+    private WhileStatement visitWhileStmt(N node) {
+        WhileStatement whileStatement = ast.newWhileStatement();
+        whileStatement.setExpression((Expression) visit(child(node, 2)));
+
+        Statement body = (Statement) visit(child(node, 4));
+        whileStatement.setBody(body);
+        return whileStatement;
+    }
+
+    // Statement: "if" "(" Expression ")" Statement "else" Statement
+    private IfStatement visitIfElseStmt(N node) {
+        IfStatement ifStatement = ast.newIfStatement();
+        ifStatement.setExpression((Expression) visit(child(node, 2)));
+        Statement thenBranch = (Statement) visit(child(node, 4));
+        if (thenBranch != null)
+            ifStatement.setThenStatement(thenBranch);
+        Statement elseBranch = (Statement) visit(child(node, 6));
+        if (elseBranch != null)
+            ifStatement.setElseStatement(elseBranch);
+        return ifStatement;
+    }
+
+    // Statement: "if" "(" Expression ")" Statement !>>> "else"
+    private IfStatement visitIfStmt(N node) {
+        IfStatement ifStatement = ast.newIfStatement();
+        ifStatement.setExpression((Expression) visit(child(node, 2)));
+        Statement thenBranch = (Statement) visit(child(node, 4));
+        if (thenBranch != null) ifStatement.setThenStatement(thenBranch);
+        return ifStatement;
+    }
+
+    // Statement: Identifier ":" Statement
+    private LabeledStatement visitLabelStmt(N node) {
+        LabeledStatement labeledStatement = ast.newLabeledStatement();
+        labeledStatement.setLabel((SimpleName) visit(child(node, 0)));
+        labeledStatement.setBody((Statement) visit(child(node, 2)));
+        return labeledStatement;
+    }
+
+    // Statement: "try" ResourceSpecification Block CatchClause* Finally?
+    private TryStatement visitTryWithResourcesStmt(N node) {
+        TryStatement tryStatement = ast.newTryStatement();
+        tryStatement.resources().addAll((List<Expression>) visit(child(node, 1)));
+        tryStatement.setBody((Block) visit(child(node, 2)));
+        tryStatement.catchClauses().addAll((List<CatchClause>) visit(child(node, 3)));
+
+        Block block = (Block) visit(child(node, 4));
+        if (block != null) {
+            tryStatement.setFinally(block);
+        }
+        return tryStatement;
+    }
+
+    // Statement: "try" Block CatchClause* Finally
+    private TryStatement visitTryFinally(N node) {
+        TryStatement tryStatement = ast.newTryStatement();
+        tryStatement.setBody((Block) visit(child(node, 1)));
+        tryStatement.catchClauses().addAll((List<CatchClause>) visit(child(node, 2)));
+        tryStatement.setFinally((Block) visit(child(node, 3)));
+        return tryStatement;
+    }
+
+    // Statement: "try" Block CatchClause+
+    private TryStatement visitTryStmt(N node) {
+        TryStatement tryStatement = ast.newTryStatement();
+        tryStatement.setBody((Block) visit(child(node, 1)));
+        tryStatement.catchClauses().addAll((List<CatchClause>) visit(child(node, 2)));
+        return tryStatement;
+    }
+
+    // Statement: "throw" Expression ";"
+    private ThrowStatement visitThrowStmt(N node) {
+        ThrowStatement throwStatement = ast.newThrowStatement();
+        throwStatement.setExpression((Expression) visit(child(node, 1)));
+        return throwStatement;
+    }
+
+    // SynchronizedStatement: "synchronized" "(" Expression ")" Block
+    private SynchronizedStatement visitSynchronizedStmt(N node) {
+        SynchronizedStatement synchronizedStatement = ast.newSynchronizedStatement();
+        synchronizedStatement.setExpression((Expression) visit(child(node, 2)));
+        synchronizedStatement.setBody((Block) visit(child(node, 4)));
+        return synchronizedStatement;
+    }
+
+    // Statement: "return" Expression? ";"
+    private ReturnStatement visitReturnStatement(N node) {
+        ReturnStatement returnStatement = ast.newReturnStatement();
+        Expression expression = (Expression) visit(child(node, 1));
+        if (expression != null) {
+            returnStatement.setExpression(expression);
+        }
+        return returnStatement;
+    }
+
+    // Statement: "continue" Identifier? ";"
+    private ContinueStatement visitContinueStmt(N node) {
+        ContinueStatement continueStatement = ast.newContinueStatement();
+        SimpleName identifier = (SimpleName) visit(child(node, 1));
+        if (identifier != null) {
+            continueStatement.setLabel(identifier);
+        }
+        return continueStatement;
+    }
+
+    // Statement: "break" Identifier? ";"
+    private BreakStatement visitBreakStmt(N node) {
+        BreakStatement breakStatement = ast.newBreakStatement();
+
+        SimpleName identifier = (SimpleName) visit(child(node, 1));
+        if (identifier != null) {
+            breakStatement.setLabel(identifier);
+        }
+        return breakStatement;
+    }
+
+    // Statement: "do" Statement "while" "(" Expression ")" ";"
+    private DoStatement visitDoStmt(N node) {
+        DoStatement doStatement = ast.newDoStatement();
+        doStatement.setBody((Statement) visit(child(node, 1)));
+        doStatement.setExpression((Expression) visit(child(node, 4)));
+        return doStatement;
+    }
+
+    // Statement: "switch" "(" Expression ")" "{" SwitchBlockStatementGroup* SwitchLabel* "}"
+    private SwitchStatement visitSwitchStmt(N node) {
+        SwitchStatement switchStatement = ast.newSwitchStatement();
+        switchStatement.setExpression((Expression) visit(child(node, 2)));
+
+        for (N group : children(child(node, 5))) {
+            switchStatement.statements().addAll(getSwitchBlockStatements(group));
+        }
+        switchStatement.statements().addAll((List<Statement>) visit(child(node, 6)));
+        return switchStatement;
+    }
+
+    // Statement: "assert" Expression (":" Expression)? ";"
+    private AssertStatement visitAssertStmt(N node) {
+        AssertStatement assertStatement = ast.newAssertStatement();
+        assertStatement.setExpression((Expression) visit(child(node, 1)));
+
+        Expression message = (Expression) visit(child(node, 2));
+        if (message != null) {
+            assertStatement.setMessage(message);
+        }
+        return assertStatement;
+    }
+
+    // Statement: Expression ";"
+    private ExpressionStatement visitExpressionStmt(N node) {
+        return ast.newExpressionStatement((Expression) visit(child(node, 0)));
+    }
+
+    // Statement: ;
+    private EmptyStatement visitEmptyStmt(N node) {
+        return ast.newEmptyStatement();
+    }
+
+    // Statement: Block
+    private Block visitBlockStmt(N node) {
+        return (Block) visit(child(node, 0));
+    }
+
+    // LocalVariableDeclarationStatement: VariableModifier* Type {VariableDeclarator ","}+ ";"
+    private VariableDeclarationStatement visitLocalVariableDeclarationStatement(N node) {
+        List<VariableDeclarationFragment> fragments = (List<VariableDeclarationFragment>) visit(child(node, 2));
+        VariableDeclarationStatement variableDeclarationStatement = ast.newVariableDeclarationStatement(fragments.get(0));
+        for (int i = 1; i < fragments.size(); i++) {
+            variableDeclarationStatement.fragments().add(fragments.get(i));
+        }
+        variableDeclarationStatement.setType((Type) visit(child(node, 1)));
+        variableDeclarationStatement.modifiers().addAll(getModifiers(child(node, 0)));
+        return variableDeclarationStatement;
+    }
+
+    //  "{" BlockStatement* "}"
+    private Block visitBlock(N node) {
+        Block block = ast.newBlock();
+        List<ASTNode> blockStatements = (List<ASTNode>) visit(child(node, 1));
+        for (int i = 0; i < blockStatements.size(); i++) {
+            ASTNode blockStatement = blockStatements.get(i);
+            if (blockStatement instanceof TypeDeclaration) {
+                block.statements().add(ast.newTypeDeclarationStatement((TypeDeclaration) blockStatement));
+            } else {
+                block.statements().add(blockStatement);
+            }
+        }
+        return block;
+    }
+
+    //   Type
+    // | "void"
+    private Type visitResult(N node) {
+        if (name(child(node, 0)).equals("Type")) {
+            return (Type) visit(child(node, 0));
+        }
+        return ast.newPrimitiveType(PrimitiveType.VOID);
+    }
+
+    /*
+     * LastFormalParameter
+     *   : VariableModifier* Type "..." VariableDeclaratorId
+     *   | FormalParameter
+     */
+    private SingleVariableDeclaration visitLastFormalParameter(N node) {
+        if (childCount(node) == 1) { // Second alternative
+            return (SingleVariableDeclaration) visit(child(node, 0));
+        }
+        SingleVariableDeclaration singleVariableDeclaration = ast.newSingleVariableDeclaration();
+        singleVariableDeclaration.setType((Type) visit(child(node, 1)));
+        singleVariableDeclaration.modifiers().addAll(getModifiers(child(node, 0)));
+        singleVariableDeclaration.setVarargs(true);
+        singleVariableDeclaration.setName((SimpleName) visit(child(child(node, 3), 0)));
+        return singleVariableDeclaration;
+    }
+
+    // FormalParameter: VariableModifier* Type VariableDeclaratorId
+    private SingleVariableDeclaration visitFormalParameter(N node) {
+        SingleVariableDeclaration singleVariableDeclaration = ast.newSingleVariableDeclaration();
+        singleVariableDeclaration.setType((Type) visit(child(node, 1)));
+        singleVariableDeclaration.modifiers().addAll(getModifiers(child(node, 0)));
+        N variableDeclaratorId = child(node, 2);
+        singleVariableDeclaration.extraDimensions().addAll(getDimensions(child(variableDeclaratorId, 1)));
+        singleVariableDeclaration.setName((SimpleName) visit(child(variableDeclaratorId, 0)));
+        return singleVariableDeclaration;
+    }
+
+    // FormalParameterList: (FormalParameter ",")* LastFormalParameter
+    private List<SingleVariableDeclaration> visitFormalParameterList(N node) {
+        List<SingleVariableDeclaration> formalParameters = (List<SingleVariableDeclaration>) visit(child(node, 0));
+        SingleVariableDeclaration lastFormalParameter = (SingleVariableDeclaration) visit(child(node, 1));
+        formalParameters.add(lastFormalParameter);
+        return formalParameters;
+    }
+
+    // Throws: "throws" {QualifiedIdentifier ","}+
+    private Object visitThrows(N node) {
+        return getQualifiedTypes(child(node, 1));
+    }
+
+    // MethodDeclaration: MethodModifier* TypeParameters? Result MethodDeclarator Throws? MethodBody
+    // MethodDeclarator:  Identifier "(" FormalParameterList? ")" ("[" "]")*
+    private MethodDeclaration visitMethodDeclaration(N node) {
+        MethodDeclaration methodDeclaration = ast.newMethodDeclaration();
+
+        methodDeclaration.modifiers().addAll((List<IExtendedModifier>) visit(child(node, 0)));
+
+        List<Type> typeParameters = (List<Type>) visit(child(node, 1));
+        if (typeParameters != null) {
+            methodDeclaration.typeParameters().addAll(typeParameters);
+        }
+
+        methodDeclaration.setReturnType2((Type) visit(child(node, 2)));
+
+        N methodDeclarator = child(node, 3);
+        methodDeclaration.setName((SimpleName) visit(child(methodDeclarator, 0)));
+
+        List<SingleVariableDeclaration> parameters = (List<SingleVariableDeclaration>) visit(child(methodDeclarator, 2));
+        if (parameters != null) {
+            methodDeclaration.parameters().addAll(parameters);
+        }
+
+        methodDeclaration.extraDimensions().addAll(getDimensions(child(methodDeclarator, 4)));
+
+        List<Type> exceptionTypes = (List<Type>) visit(child(node, 4));
+        if (exceptionTypes != null) {
+            methodDeclaration.thrownExceptionTypes().addAll(exceptionTypes);
+        }
+
+        methodDeclaration.setBody((Block) visit(child(node, 5)));
+
+        return methodDeclaration;
+    }
+
+    // EnumConstant: Annotation* Identifier Arguments? ClassBody?
+    private EnumConstantDeclaration visitEnumConstant(N node) {
+        EnumConstantDeclaration enumConstantDeclaration = ast.newEnumConstantDeclaration();
+
+        enumConstantDeclaration.modifiers().addAll(getModifiers(child(node, 0)));
+        enumConstantDeclaration.setName(getIdentifier(child(node, 1)));
+
+        List<Expression> arguments = (List<Expression>) visit(child(node, 2));
+        if (arguments != null) {
+            enumConstantDeclaration.arguments().addAll(arguments);
+        }
+
+        List<BodyDeclaration> bodyDeclarations = (List<BodyDeclaration>) visit(child(node, 3));
+        if (bodyDeclarations != null) {
+            AnonymousClassDeclaration anonymousClassDeclaration = ast.newAnonymousClassDeclaration();
+            anonymousClassDeclaration.bodyDeclarations().addAll(bodyDeclarations);
+            enumConstantDeclaration.setAnonymousClassDeclaration(anonymousClassDeclaration);
+        }
+
+        return enumConstantDeclaration;
+    }
+
+    // NormalClassDeclaration: ClassModifier* "class" Identifier TypeParameters? ("extends" Type)? ("implements" TypeList)? ClassBody;
+    private TypeDeclaration visitNormalClassDeclaration(N node) {
+        TypeDeclaration classDeclaration = ast.newTypeDeclaration();
+        classDeclaration.modifiers().addAll(getModifiers(child(node, 0)));
+        classDeclaration.setName((SimpleName) visit(child(node, 2)));
+
+        List<Type> typeParameters = (List<Type>) visit(child(node, 3));
+        if (typeParameters != null) {
+            classDeclaration.typeParameters().addAll(typeParameters);
+        }
+
+        Type type = (Type) visit(child(node, 4));
+        if (type != null) { // ("extends" Type)?
+            classDeclaration.setSuperclassType(type);
+        }
+
+        List<Type> superInterfaces = (List<Type>) visit(child(node, 5));
+        if (superInterfaces != null) {
+            classDeclaration.superInterfaceTypes().addAll(superInterfaces);
+        }
+
+        classDeclaration.bodyDeclarations().addAll((List<BodyDeclaration>) visit(child(node, 6)));
+
+        return classDeclaration;
+    }
+
+    // CompilationUnit: PackageDeclaration? ImportDeclaration* TypeDeclaration*
+    private CompilationUnit visitCompilationUnit(N node) {
+        CompilationUnit compilationUnit = ast.newCompilationUnit();
+        PackageDeclaration packageDeclaration = (PackageDeclaration) visit(child(node, 0));
+        if (packageDeclaration != null) {
+            compilationUnit.setPackage(packageDeclaration);
+        }
+        compilationUnit.imports().addAll((List<ImportDeclaration>) visit(child(node, 1)));
+        compilationUnit.types().addAll((List<TypeDeclaration>) visit(child(node, 2)));
+        return compilationUnit;
+    }
+
+    // PackageDeclaration: Annotation* "package"  QualifiedIdentifier ";"
+    private PackageDeclaration visitPackageDeclaration(N node) {
+        PackageDeclaration packageDeclaration = ast.newPackageDeclaration();
+        packageDeclaration.annotations().addAll(getModifiers(child(node, 0)));
+        packageDeclaration.setName((Name) visit(child(node, 2)));
+        return packageDeclaration;
+    }
+
+    // ImportDeclaration: "import"  "static"?  QualifiedIdentifier ("." "*")? ";"
+    private ImportDeclaration visitImportDeclaration(N node) {
+        ImportDeclaration importDeclaration = ast.newImportDeclaration();
+        if (text(child(node, 1)).length() > 0) { // "static"?
+            importDeclaration.setStatic(true);
+        }
+        importDeclaration.setName((Name) visit(child(node, 2)));
+        if (childCount(child(node, 3)) > 0) { // ("." "*")?
+            importDeclaration.setOnDemand(true);
+        }
+        return importDeclaration;
+    }
+
+    // EnumDeclaration: ClassModifier* "enum" Identifier ("implements" TypeList)? EnumBody
+    private Object visitEnumDeclaration(N node) {
+        EnumDeclaration enumDeclaration = ast.newEnumDeclaration();
+        enumDeclaration.modifiers().addAll(getModifiers(child(node, 0)));
+        enumDeclaration.setName((SimpleName) visit(child(node, 2)));
+
+        List<Type> typeList = (List<Type>) visit(child(node, 3));
+        if (typeList != null) {
+            enumDeclaration.superInterfaceTypes().addAll(typeList);
+        }
+
+        N enumBodyNode = child(node, 4);
+        // "{" {EnumConstant ","}* ","? EnumBodyDeclarations? "}"
+        List<BodyDeclaration> enumConstants = (List<BodyDeclaration>) visit(child(enumBodyNode, 1));
+        enumDeclaration.enumConstants().addAll(enumConstants);
+
+        List<BodyDeclaration> bodyDeclarations = (List<BodyDeclaration>) visit(child(enumBodyNode, 3));
+        if (bodyDeclarations != null) {
+            enumDeclaration.bodyDeclarations().addAll(bodyDeclarations);
+        }
+
+        return enumDeclaration;
+    }
+
+    // NormalInterfaceDeclaration: InterfaceModifier* "interface" Identifier TypeParameters? ("extends" TypeList)? InterfaceBody
+    private Object visitNormalInterfaceDeclaration(N node) {
+        TypeDeclaration interfaceDeclaration = ast.newTypeDeclaration();
+        interfaceDeclaration.setInterface(true);
+        interfaceDeclaration.modifiers().addAll(getModifiers(child(node, 0)));
+        interfaceDeclaration.setName((SimpleName) visit(child(node, 2)));
+
+        List<TypeParameter> typeParameters = (List<TypeParameter>) visit(child(node, 3));
+        if (typeParameters != null) {
+            interfaceDeclaration.typeParameters().addAll(typeParameters);
+        }
+
+        List<Type> superInterfaces = (List<Type>) visit(child(node, 4));
+        if (superInterfaces != null) {
+            interfaceDeclaration.superInterfaceTypes().addAll(superInterfaces);
+        }
+
+        List<BodyDeclaration> bodyDeclarations = (List<BodyDeclaration>) visit(child(node, 5));
+        interfaceDeclaration.bodyDeclarations().addAll(bodyDeclarations);
+
+        return interfaceDeclaration;
+    }
+
+    // AbstractMethodDeclaration: AbstractMethodModifier* TypeParameters? Result MethodDeclarator Throws? ";"
+    private MethodDeclaration visitAbstractMethodDeclaration(N node) {
+        MethodDeclaration methodDeclaration = ast.newMethodDeclaration();
+        methodDeclaration.modifiers().addAll(getModifiers(child(node, 0)));
+
+        List<TypeParameter> typeParameters = (List<TypeParameter>) visit(child(node, 1));
+        if (typeParameters != null) {
+            methodDeclaration.typeParameters().addAll(typeParameters);
+        }
+
+        Type returnType = (Type) visit(child(node, 2));
+        methodDeclaration.setReturnType2(returnType);
+
+        // Identifier "(" FormalParameterList? ")" ("[" "]")*
+        N methodDeclarator = child(node, 3);
+        methodDeclaration.setName((SimpleName) visit(child(methodDeclarator, 0)));
+
+        List<SingleVariableDeclaration> parameters = (List<SingleVariableDeclaration>) visit(child(methodDeclarator, 2));
+        if (parameters != null) {
+            methodDeclaration.parameters().addAll(parameters);
+        }
+
+        methodDeclaration.extraDimensions().addAll(getDimensions(child(methodDeclarator, 4)));
+
+        List<Type> exceptionTypes = (List<Type>) visit(child(node, 4));
+        if (exceptionTypes != null) {
+            methodDeclaration.thrownExceptionTypes().addAll(exceptionTypes);
+        }
+
+        return methodDeclaration;
+    }
+
+    // AnnotationTypeDeclaration: InterfaceModifier* "@" "interface" Identifier AnnotationTypeBody
+    private AnnotationTypeDeclaration visitAnnotationTypeDeclaration(N node) {
+        AnnotationTypeDeclaration annotationTypeDeclaration = ast.newAnnotationTypeDeclaration();
+        annotationTypeDeclaration.setName(getIdentifier(child(node, 3)));
+        annotationTypeDeclaration.modifiers().addAll(getModifiers(child(node, 0)));
+
+        annotationTypeDeclaration.bodyDeclarations().addAll((List<BodyDeclaration>) visit(child(node, 4)));
+        return annotationTypeDeclaration;
+    }
+
+    // ConstantDeclaration: ConstantModifier* Type {VariableDeclarator ","}+ ";"
+    private FieldDeclaration visitConstantDeclaration(N node) {
+        List<VariableDeclarationFragment> fragments = (List<VariableDeclarationFragment>) visit(child(node, 2));
+        FieldDeclaration fieldDeclaration = ast.newFieldDeclaration(fragments.get(0));
+        fieldDeclaration.fragments().addAll(fragments.subList(1, fragments.size()));
+        fieldDeclaration.modifiers().addAll(getModifiers(child(node, 0)));
+        fieldDeclaration.setType((Type) visit(child(node, 1)));
+        return fieldDeclaration;
+    }
+
+    // AnnotationMethodDeclaration: AbstractMethodModifier* Type Identifier "(" ")" ("[" "]")* DefaultValue? ";"
+    private AnnotationTypeMemberDeclaration visitAnnotationMethodDeclaration(N node) {
+        AnnotationTypeMemberDeclaration annotationTypeMemberDeclaration = ast.newAnnotationTypeMemberDeclaration();
+        annotationTypeMemberDeclaration.modifiers().addAll(getModifiers(child(node, 0)));
+        annotationTypeMemberDeclaration.setType((Type) visit(child(node, 1)));
+        annotationTypeMemberDeclaration.setName(getIdentifier(child(node, 2)));
+        Expression expression = (Expression) visit(child(node, 6));
+        annotationTypeMemberDeclaration.setDefault(expression);
+        return annotationTypeMemberDeclaration;
+    }
+
+    // Annotation: "@" QualifiedIdentifier Values?
+    private Annotation visitAnnotation(N node) {
+        Name name = (Name) visit(child(node, 1));
+
+        if (childCount(child(node, 2)) == 0) {
+            MarkerAnnotation markerAnnotation = ast.newMarkerAnnotation();
+            markerAnnotation.setTypeName(name);
+            return markerAnnotation;
+        }
+
+        List<Object> values = (List<Object>) visit(child(node, 2));
+
+        if (values == null) {
+            values = emptyList();
+        }
+
+        if (values.size() == 1 && values.get(0) instanceof Expression) {
+            SingleMemberAnnotation singleMemberAnnotation = ast.newSingleMemberAnnotation();
+            singleMemberAnnotation.setTypeName(name);
+            singleMemberAnnotation.setValue((Expression) values.get(0));
+            return singleMemberAnnotation;
+        }
+
+        NormalAnnotation normalAnnotation = ast.newNormalAnnotation();
+        normalAnnotation.setTypeName(name);
+        normalAnnotation.values().addAll(values);
+        return normalAnnotation;
+    }
+
+    // ArrayInitializer: ElementValueArrayInitializer: "{" { ElementValue "," }* ","? "}"
+    private ArrayInitializer visitElementValueArrayInitializer(N node) {
+        ArrayInitializer arrayInitializer = ast.newArrayInitializer();
+        arrayInitializer.expressions().addAll((List<Expression>) visit(child(node, 1)));
+        return arrayInitializer;
+    }
+
+    // ElementValuePair: Identifier "=" ElementValue
+    private MemberValuePair visitElementValuePair(N node) {
+        MemberValuePair memberValuePair = ast.newMemberValuePair();
+        memberValuePair.setName(getIdentifier(child(node, 0)));
+        memberValuePair.setValue((Expression) visit(child(node, 2)));
+        return memberValuePair;
+    }
+
+    // FieldDeclaration: FieldModifier* Type {VariableDeclarator ","}+ ";"
+    private FieldDeclaration visitFieldDeclaration(N node) {
+        List<VariableDeclarationFragment> fragments = (List<VariableDeclarationFragment>) visit(child(node, 2));
+        FieldDeclaration fieldDeclaration = ast.newFieldDeclaration(fragments.get(0));
+        fieldDeclaration.modifiers().addAll(getModifiers(child(node, 0)));
+        fieldDeclaration.setType((Type) visit(child(node, 1)));
+        fieldDeclaration.fragments().addAll(fragments.subList(1, fragments.size()));
+        return fieldDeclaration;
+    }
+
+    // VariableDeclarator: VariableDeclaratorId ("=" VariableInitializer)?
+    private VariableDeclarationFragment visitVariableDeclarator(N node) {
+        VariableDeclarationFragment fragment = ast.newVariableDeclarationFragment();
+        N variableDeclaratorIdNode = child(node, 0);
+        fragment.setName((SimpleName) visit(child(variableDeclaratorIdNode, 0)));
+        fragment.extraDimensions().addAll(getDimensions(child(variableDeclaratorIdNode, 1)));
+
+        Expression expression = (Expression) visit(child(node, 1));
+        if (expression != null) {
+            fragment.setInitializer(expression);
+        }
+        return fragment;
+    }
+
+    private SimpleName getIdentifier(N node) {
+        return ast.newSimpleName(text(node));
+    }
+
+    private List<IExtendedModifier> getModifiers(N node) {
+        return (List<IExtendedModifier>) visit(node);
+    }
+
+    // SwitchLabel+ BlockStatement+
+    private List<Statement> getSwitchBlockStatements(N node) {
+        List<Statement> statements = (List<Statement>) visit(child(node, 0));
+        statements.addAll((List<Statement>) visit(child(node, 1)));
+        return statements;
+    }
+
+    // ('[' ']')*
+    private int getDimensionsSize(N node) {
+        return childCount(node);
+    }
+
+    private List<Dimension> getDimensions(N node) {
+        if (node == null) return emptyList();
+
+        int size = getDimensionsSize(node);
+        List<Dimension> dimensions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dimensions.add(ast.newDimension());
+        }
+        return dimensions;
+    }
+
+    private Expression getFieldAccess(Expression expression, N node) {
+        switch (label(node)) {
+            case "idSelector": {
+                FieldAccess fieldAccess = ast.newFieldAccess();
+                fieldAccess.setExpression(expression);
+                fieldAccess.setName(getIdentifier(child(node, 0)));
+                return fieldAccess;
+            }
+
+            // NonWildTypeArguments? MethodInvocation
+            case "methodSelector": {
+                MethodInvocation methodInvocation = (MethodInvocation) visit(child(node, 1));
+                methodInvocation.setExpression(expression);
+                List<Type> typeArguments = (List<Type>) visit(child(node, 0));
+                if (typeArguments != null) {
+                    methodInvocation.typeArguments().addAll(typeArguments);
+                }
+                return methodInvocation;
+            }
+
+            case "thisSelector": {
+                ThisExpression thisExpression = ast.newThisExpression();
+                thisExpression.setQualifier((Name) expression);
+                return thisExpression;
+            }
+
+            case "superSelector": {
+                Expression result = (Expression) visit(child(node, 1));
+                if (result instanceof SuperFieldAccess) {
+                    ((SuperFieldAccess) result).setQualifier((Name) expression);
+                } else {
+                    ((SuperMethodInvocation) result).setQualifier((Name) expression);
+                }
+                return result;
+            }
+
+            // "new" TypeArguments? Identifier TypeArgumentsOrDiamond? Arguments ClassBody?
+            case "newSelector": {
+                ClassInstanceCreation classInstanceCreation = ast.newClassInstanceCreation();
+
+                List<BodyDeclaration> bodyDeclarations = (List<BodyDeclaration>) visit(child(node, 5));
+                if (bodyDeclarations != null) {
+                    AnonymousClassDeclaration anonymousClassDeclaration = ast.newAnonymousClassDeclaration();
+                    anonymousClassDeclaration.bodyDeclarations().addAll(bodyDeclarations);
+                    classInstanceCreation.setAnonymousClassDeclaration(anonymousClassDeclaration);
+                }
+
+                classInstanceCreation.setExpression(expression);
+
+                List<Expression> arguments = (List<Expression>) visit(child(node, 4));
+                classInstanceCreation.arguments().addAll(arguments);
+
+                List<Type> typeArguments = (List<Type>) visit(child(node, 1));
+                if (typeArguments != null) {
+                    classInstanceCreation.typeArguments().addAll(typeArguments);
+                }
+
+                Type type = ast.newSimpleType(getIdentifier(child(node, 2)));
+
+                List<Type> typeArgumentsOrDiamond = (List<Type>) visit(child(node, 3));
+                if (typeArgumentsOrDiamond != null) {
+                    type = ast.newParameterizedType(type);
+                    ((ParameterizedType) type).typeArguments().addAll(typeArgumentsOrDiamond);
+                }
+
+                classInstanceCreation.setType(type);
+                return classInstanceCreation;
+            }
+
+            default:
+                throw new RuntimeException("Unknown Selector: " + text(node));
+        }
+    }
+}
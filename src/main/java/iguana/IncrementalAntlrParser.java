@@ -0,0 +1,339 @@
+package iguana;
+
+import antlr4java.JavaLexer;
+import antlr4java.JavaParser;
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.StructuralPropertyDescriptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reparses an edited file with ANTLR by reparsing only the smallest block or class body declaration that
+ * contains the edit, with the block or classBodyDeclaration rule as start rule. The new subtree is spliced into
+ * the parse tree, the token list, whose positions after the edit are shifted, and the converted CompilationUnit.
+ * If no region can be reparsed on its own, e.g., because the edit opens a comment that extends beyond the region,
+ * the whole file is parsed again.
+ *
+ * The previous result is updated in place and must not be used afterwards.
+ *
+ * ANTLR can start at any rule, but Iguana only parses from the start symbol of its grammar. For Iguana, and any
+ * other parser that can parse bodies wrapped in a class, {@link LazyJavaParser#reparse} reparses only the method,
+ * constructor or initializer body that contains an edit, which is coarser than the innermost block here.
+ */
+public class IncrementalAntlrParser {
+
+    public static class Edit {
+
+        private final int offset;
+
+        private final int length;
+
+        private final String replacement;
+
+        /**
+         * Replaces the length characters at offset with the replacement.
+         */
+        public Edit(int offset, int length, String replacement) {
+            this.offset = offset;
+            this.length = length;
+            this.replacement = replacement;
+        }
+
+        int getOffset() {
+            return offset;
+        }
+
+        int getLength() {
+            return length;
+        }
+
+        String apply(String input) {
+            return input.substring(0, offset) + replacement + input.substring(offset + length);
+        }
+
+        int getDelta() {
+            return replacement.length() - length;
+        }
+    }
+
+    public static class Result {
+
+        private final String input;
+
+        private final JavaParser.CompilationUnitContext parseTree;
+
+        private final List<Token> tokens;
+
+        private final CompilationUnit compilationUnit;
+
+        private final Map<ParserRuleContext, ASTNode> nodes;
+
+        private final ParserRuleContext reparsedRegion;
+
+        Result(String input, JavaParser.CompilationUnitContext parseTree, List<Token> tokens, CompilationUnit compilationUnit,
+               Map<ParserRuleContext, ASTNode> nodes, ParserRuleContext reparsedRegion) {
+            this.input = input;
+            this.parseTree = parseTree;
+            this.tokens = tokens;
+            this.compilationUnit = compilationUnit;
+            this.nodes = nodes;
+            this.reparsedRegion = reparsedRegion;
+        }
+
+        public String getInput() {
+            return input;
+        }
+
+        public JavaParser.CompilationUnitContext getParseTree() {
+            return parseTree;
+        }
+
+        public CompilationUnit getCompilationUnit() {
+            return compilationUnit;
+        }
+
+        /**
+         * Returns the new subtree if only a region was reparsed, or null if the whole file was parsed.
+         */
+        public ParserRuleContext getReparsedRegion() {
+            return reparsedRegion;
+        }
+    }
+
+    public Result parse(String input) {
+        CommonTokenStream tokens = new CommonTokenStream(newLexer(CharStreams.fromString(input)));
+        JavaParser parser = newParser(tokens);
+        JavaParser.CompilationUnitContext parseTree = parser.compilationUnit();
+        tokens.fill();
+
+        Map<ParserRuleContext, ASTNode> nodes = new IdentityHashMap<>();
+        CompilationUnit compilationUnit = (CompilationUnit) parseTree.accept(new RecordingVisitor(AST.newAST(AST.JLS10), nodes));
+        return new Result(input, parseTree, new ArrayList<>(tokens.getTokens()), compilationUnit, nodes, null);
+    }
+
+    public Result reparse(Result previous, Edit edit) {
+        String input = edit.apply(previous.input);
+
+        for (ParserRuleContext region : findRegions(previous, edit)) {
+            CommonTokenStream tokens = new CommonTokenStream(newLexer(CharStreams.fromString(input)));
+            ParserRuleContext newRegion = reparseRegion(region, tokens, edit.getDelta());
+            if (newRegion == null) {
+                continue;
+            }
+            ASTNode newNode = (ASTNode) newRegion.accept(new RecordingVisitor(previous.compilationUnit.getAST(), previous.nodes));
+            if (newNode == null) {
+                continue;
+            }
+            spliceTokens(previous.tokens, region, tokens.getTokens(newRegion.getStart().getTokenIndex(), newRegion.getStop().getTokenIndex()), edit.getDelta());
+            spliceParseTree(region, newRegion);
+            spliceAST(previous.nodes.get(region), newNode);
+            removeNodes(previous.nodes, region);
+            return new Result(input, previous.parseTree, previous.tokens, previous.compilationUnit, previous.nodes, newRegion);
+        }
+
+        return parse(input);
+    }
+
+    /**
+     * Returns true if the result has the same tokens, parse tree and CompilationUnit as a full parse of its input.
+     */
+    public boolean matchesFullParse(Result result) {
+        Result full = parse(result.input);
+        List<String> ruleNames = Arrays.asList(JavaParser.ruleNames);
+        return toString(full.tokens).equals(toString(result.tokens))
+                && full.parseTree.toStringTree(ruleNames).equals(result.parseTree.toStringTree(ruleNames))
+                && full.compilationUnit.subtreeMatch(new CustomASTMatcher(), result.compilationUnit);
+    }
+
+    private static List<String> toString(List<Token> tokens) {
+        List<String> strings = new ArrayList<>();
+        for (Token token : tokens) {
+            strings.add(token.toString());
+        }
+        return strings;
+    }
+
+    /**
+     * Returns the blocks and class body declarations that strictly contain the edit, innermost first.
+     */
+    private static List<ParserRuleContext> findRegions(Result previous, Edit edit) {
+        List<ParserRuleContext> regions = new ArrayList<>();
+        ParserRuleContext node = previous.parseTree;
+        while (node != null) {
+            if ((node instanceof JavaParser.BlockContext || node instanceof JavaParser.ClassBodyDeclarationContext)
+                    && previous.nodes.get(node) != null) {
+                regions.add(0, node);
+            }
+            ParserRuleContext next = null;
+            for (int i = 0; i < node.getChildCount(); i++) {
+                ParseTree child = node.getChild(i);
+                if (child instanceof ParserRuleContext && contains((ParserRuleContext) child, edit)) {
+                    next = (ParserRuleContext) child;
+                    break;
+                }
+            }
+            node = next;
+        }
+        return regions;
+    }
+
+    private static boolean contains(ParserRuleContext ctx, Edit edit) {
+        return ctx.getStart() != null && ctx.getStop() != null
+                && ctx.getStart().getStartIndex() < edit.offset && edit.offset + edit.length <= ctx.getStop().getStopIndex();
+    }
+
+    /**
+     * Parses the region of the new input that starts where the old region started, and returns it if it ends
+     * where the old region ends after the edit. The lexer starts at the region, the tokens before it are kept.
+     */
+    private static ParserRuleContext reparseRegion(ParserRuleContext region, CommonTokenStream tokens, int delta) {
+        JavaLexer lexer = (JavaLexer) tokens.getTokenSource();
+        lexer.getInputStream().seek(region.getStart().getStartIndex());
+        lexer.setLine(region.getStart().getLine());
+        lexer.setCharPositionInLine(region.getStart().getCharPositionInLine());
+        JavaParser parser = newParser(tokens);
+
+        ParserRuleContext newRegion;
+        try {
+            newRegion = region instanceof JavaParser.BlockContext ? parser.block() : parser.classBodyDeclaration();
+        } catch (ParseCancellationException e) {
+            return null;
+        }
+
+        if (newRegion.getStop() == null || newRegion.getStop().getStopIndex() != region.getStop().getStopIndex() + delta) {
+            return null;
+        }
+        return newRegion;
+    }
+
+    /**
+     * Replaces the tokens of the region by the new tokens and shifts the positions of the tokens after it. Their
+     * text is copied first, as it is otherwise read from the old input at the token's position.
+     */
+    private static void spliceTokens(List<Token> tokens, ParserRuleContext region, List<Token> newTokens, int delta) {
+        int from = region.getStart().getTokenIndex();
+        int to = region.getStop().getTokenIndex();
+        Token oldStop = region.getStop();
+        Token newStop = newTokens.get(newTokens.size() - 1);
+        int lineDelta = newStop.getLine() - oldStop.getLine();
+        int columnDelta = newStop.getCharPositionInLine() - oldStop.getCharPositionInLine();
+        int indexDelta = newTokens.size() - (to - from + 1);
+
+        for (int i = to + 1; i < tokens.size(); i++) {
+            CommonToken token = (CommonToken) tokens.get(i);
+            if (token.getType() != Token.EOF) {
+                token.setText(token.getText());
+            }
+            if (token.getLine() == oldStop.getLine()) {
+                token.setCharPositionInLine(token.getCharPositionInLine() + columnDelta);
+            }
+            token.setLine(token.getLine() + lineDelta);
+            token.setStartIndex(token.getStartIndex() + delta);
+            token.setStopIndex(token.getStopIndex() + delta);
+            token.setTokenIndex(token.getTokenIndex() + indexDelta);
+        }
+
+        for (int i = 0; i < newTokens.size(); i++) {
+            ((CommonToken) newTokens.get(i)).setTokenIndex(from + i);
+        }
+        tokens.subList(from, to + 1).clear();
+        tokens.addAll(from, newTokens);
+    }
+
+    private static void spliceParseTree(ParserRuleContext region, ParserRuleContext newRegion) {
+        ParserRuleContext parent = region.getParent();
+        parent.children.set(parent.children.indexOf(region), newRegion);
+        newRegion.setParent(parent);
+        for (ParserRuleContext ancestor = parent; ancestor != null; ancestor = ancestor.getParent()) {
+            if (ancestor.start == region.start) {
+                ancestor.start = newRegion.start;
+            }
+            if (ancestor.stop == region.stop) {
+                ancestor.stop = newRegion.stop;
+            }
+        }
+    }
+
+    private static void spliceAST(ASTNode oldNode, ASTNode newNode) {
+        ASTNode parent = oldNode.getParent();
+        StructuralPropertyDescriptor location = oldNode.getLocationInParent();
+        if (location.isChildListProperty()) {
+            @SuppressWarnings("unchecked")
+            List<ASTNode> list = (List<ASTNode>) parent.getStructuralProperty(location);
+            list.set(list.indexOf(oldNode), newNode);
+        } else {
+            parent.setStructuralProperty(location, newNode);
+        }
+    }
+
+    private static void removeNodes(Map<ParserRuleContext, ASTNode> nodes, ParserRuleContext ctx) {
+        nodes.remove(ctx);
+        for (int i = 0; i < ctx.getChildCount(); i++) {
+            if (ctx.getChild(i) instanceof ParserRuleContext) {
+                removeNodes(nodes, (ParserRuleContext) ctx.getChild(i));
+            }
+        }
+    }
+
+    private static JavaLexer newLexer(CharStream chars) {
+        JavaLexer lexer = new JavaLexer(chars);
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(CancellingErrorListener.INSTANCE);
+        return lexer;
+    }
+
+    private static JavaParser newParser(TokenStream tokens) {
+        JavaParser parser = new JavaParser(tokens);
+        parser.removeErrorListeners();
+        parser.addErrorListener(CancellingErrorListener.INSTANCE);
+        return parser;
+    }
+
+    private static class CancellingErrorListener extends BaseErrorListener {
+
+        static final CancellingErrorListener INSTANCE = new CancellingErrorListener();
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) {
+            throw new ParseCancellationException(msg + " line: " + line + " column: " + charPositionInLine);
+        }
+    }
+
+    /**
+     * Records the JDT nodes converted from blocks and class body declarations.
+     */
+    private static class RecordingVisitor extends AntlrToJavaParseTreeVisitor {
+
+        private final Map<ParserRuleContext, ASTNode> nodes;
+
+        RecordingVisitor(AST ast, Map<ParserRuleContext, ASTNode> nodes) {
+            super(ast);
+            this.nodes = nodes;
+        }
+
+        @Override
+        public ASTNode visitBlock(JavaParser.BlockContext ctx) {
+            ASTNode node = super.visitBlock(ctx);
+            nodes.put(ctx, node);
+            return node;
+        }
+
+        @Override
+        public BodyDeclaration visitClassBodyDeclaration(JavaParser.ClassBodyDeclarationContext ctx) {
+            BodyDeclaration node = super.visitClassBodyDeclaration(ctx);
+            nodes.put(ctx, node);
+            return node;
+        }
+    }
+
+}
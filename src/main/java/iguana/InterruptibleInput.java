@@ -0,0 +1,78 @@
+package iguana;
+
+import iguana.utils.input.Input;
+import iguana.utils.input.PositionInfo;
+
+import java.net.URI;
+
+/**
+ * An Iguana input that throws a {@link ParseTimeoutException} once the reading thread is interrupted. The Iguana
+ * parser has no cancellation hook, but reads its input throughout a parse, so this cancels an Iguana parse the
+ * way {@link AntlrJavaParser.InterruptListener} cancels an ANTLR parse. The interrupt flag is checked every
+ * {@link #CHECK_INTERVAL} reads of a character, and nothing is allocated per read, so the check adds next to
+ * nothing to the time and allocation budget of a parse run by {@link GuardedParser}.
+ */
+class InterruptibleInput implements Input {
+
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final Input input;
+
+    private int reads;
+
+    InterruptibleInput(Input input) {
+        this.input = input;
+    }
+
+    @Override
+    public int charAt(int index) {
+        if (++reads == CHECK_INTERVAL) {
+            reads = 0;
+            if (Thread.currentThread().isInterrupted()) {
+                throw new ParseTimeoutException("Parse interrupted");
+            }
+        }
+        return input.charAt(index);
+    }
+
+    @Override
+    public int length() {
+        return input.length();
+    }
+
+    @Override
+    public int getLineNumber(int index) {
+        return input.getLineNumber(index);
+    }
+
+    @Override
+    public int getColumnNumber(int index) {
+        return input.getColumnNumber(index);
+    }
+
+    @Override
+    public PositionInfo getPositionInfo(int leftExtent, int rightExtent) {
+        return input.getPositionInfo(leftExtent, rightExtent);
+    }
+
+    @Override
+    public String subString(int start, int end) {
+        return input.subString(start, end);
+    }
+
+    @Override
+    public boolean isEndOfLine(int index) {
+        return input.isEndOfLine(index);
+    }
+
+    @Override
+    public boolean isEndOfFile(int index) {
+        return input.isEndOfFile(index);
+    }
+
+    @Override
+    public URI getURI() {
+        return input.getURI();
+    }
+
+}
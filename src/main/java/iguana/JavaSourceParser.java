@@ -0,0 +1,78 @@
+package iguana;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static iguana.Utils.getGrammarName;
+import static iguana.Utils.getPrecedence;
+
+public interface JavaSourceParser<T> {
+
+    String getName();
+
+    /**
+     * Returns a string that changes whenever the parser or its grammar changes, and so may its results.
+     */
+    String getVersion();
+
+    T parse(String input);
+
+    CompilationUnit convert(T parseTree);
+
+    int countNodes(T parseTree);
+
+    /**
+     * Returns parser specific statistics of the last parse, which produced the given parse tree or null.
+     */
+    default Map<String, Long> getStatistics(T parseTree) {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Returns true if the method bodies are skipped, so the results are compared with the outline of JDT.
+     */
+    default boolean isOutline() {
+        return false;
+    }
+
+    static JavaSourceParser<?> forName(String name) {
+        switch (name) {
+            case "Iguana":
+                return new IguanaJavaParser();
+
+            case "IguanaCompact":
+                return new CompactIguanaJavaParser();
+
+            case "IguanaOutline":
+                return new IguanaJavaParser(getGrammarName(), getPrecedence(), IguanaJavaParser.Preprocessing.OUTLINE);
+
+            case "IguanaLazy":
+                IguanaJavaParser iguana = new IguanaJavaParser(getGrammarName(), getPrecedence(), IguanaJavaParser.Preprocessing.NONE);
+                return new LazyJavaParser<>(iguana, iguana);
+
+            case "Antlr":
+                return new AntlrJavaParser();
+
+            case "AntlrLean":
+                return new AntlrJavaParser(true, Boolean.getBoolean("iguana.releaseTokens"));
+
+            case "AntlrOutline":
+                return new AntlrJavaParser(false, false, true);
+
+            case "AntlrLazy":
+                AntlrJavaParser antlr = new AntlrJavaParser();
+                return new LazyJavaParser<>(antlr, antlr);
+
+            case "EclipseJDT":
+                return new EclipseJDTJavaParser();
+
+            case "EclipseJDTOutline":
+                return new EclipseJDTJavaParser(true);
+
+            default:
+                throw new RuntimeException("Unknown parser: " + name + ", should be: Antlr, AntlrLazy, AntlrLean, AntlrOutline, EclipseJDT, EclipseJDTOutline, Iguana, IguanaCompact, IguanaLazy or IguanaOutline");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package iguana;
+
+import java.util.Arrays;
+
+/**
+ * The layout spans of a Java source, i.e., maximal runs of whitespace, line comments and block comments, found
+ * in one linear pass that skips string and character literals. The compacted source, in which every span is
+ * replaced by a single space and leading and trailing layout is removed, has the same tokens, so the Iguana
+ * parser can parse it instead of recognizing every layout character with the layout nonterminals woven into
+ * the grammar. An unterminated block comment is not layout, so that the compacted source fails to parse like the
+ * original. Unicode escapes are not translated, so a comment ended by an escaped line terminator is not
+ * recognized as such.
+ */
+public class LayoutIndex {
+
+    private final String input;
+
+    private int[] starts = new int[64];
+
+    private int[] ends = new int[64];
+
+    private int size;
+
+    private LayoutIndex(String input) {
+        this.input = input;
+    }
+
+    public static LayoutIndex scan(String input) {
+        LayoutIndex index = new LayoutIndex(input);
+        int length = input.length();
+        int i = 0;
+        int spanStart = -1;
+        while (i < length) {
+            char c = input.charAt(i);
+            int layoutEnd = -1;
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f') {
+                layoutEnd = i + 1;
+            } else if (c == '/' && i + 1 < length && input.charAt(i + 1) == '/') {
+                layoutEnd = i + 2;
+                while (layoutEnd < length && input.charAt(layoutEnd) != '\n' && input.charAt(layoutEnd) != '\r') {
+                    layoutEnd++;
+                }
+            } else if (c == '/' && i + 1 < length && input.charAt(i + 1) == '*') {
+                int close = input.indexOf("*/", i + 2);
+                layoutEnd = close < 0 ? -1 : close + 2;
+            }
+
+            if (layoutEnd >= 0) {
+                if (spanStart < 0) {
+                    spanStart = i;
+                }
+                i = layoutEnd;
+                continue;
+            }
+
+            if (spanStart >= 0) {
+                index.add(spanStart, i);
+                spanStart = -1;
+            }
+            i = c == '"' || c == '\'' ? skipLiteral(input, i, c) : i + 1;
+        }
+        if (spanStart >= 0) {
+            index.add(spanStart, length);
+        }
+        return index;
+    }
+
+    private static int skipLiteral(String input, int start, char quote) {
+        int i = start + 1;
+        while (i < input.length()) {
+            char c = input.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote || c == '\n') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private void add(int start, int end) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    public int getSpanCount() {
+        return size;
+    }
+
+    public int getSpanStart(int i) {
+        return starts[i];
+    }
+
+    public int getSpanEnd(int i) {
+        return ends[i];
+    }
+
+    public long getLayoutLength() {
+        long length = 0;
+        for (int i = 0; i < size; i++) {
+            length += ends[i] - starts[i];
+        }
+        return length;
+    }
+
+    public double getLayoutFraction() {
+        return input.isEmpty() ? 0 : (double) getLayoutLength() / input.length();
+    }
+
+    public String compact() {
+        StringBuilder sb = new StringBuilder(input.length() - (int) getLayoutLength() + size);
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            sb.append(input, position, starts[i]);
+            if (starts[i] > 0 && ends[i] < input.length()) {
+                sb.append(' ');
+            }
+            position = ends[i];
+        }
+        sb.append(input, position, input.length());
+        return sb.toString();
+    }
+
+}
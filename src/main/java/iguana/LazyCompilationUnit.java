@@ -0,0 +1,237 @@
+package iguana;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A CompilationUnit whose method, constructor and initializer bodies are parsed on first access. The unit is
+ * converted from a parse of the input with these bodies blanked by {@link OutlineFilter#blankBodies}, so that
+ * its bodies are empty blocks until {@link #getBody} parses the source of a body with a {@link BodyParser} and
+ * puts the result in its place. The input is retained until all bodies are parsed.
+ *
+ * An edit of the input within the braces of a body only resets that body, see {@link #applyEdit}, so that it is
+ * parsed again on its next access. This is how {@link LazyJavaParser#reparse} reparses an edited file with parsers
+ * that can only parse a whole compilation unit, such as Iguana.
+ *
+ * Parsing a body modifies the AST, so it is synchronized on the unit, and a body returned by getBody can be read
+ * by any thread. Other traversals of the unit see empty bodies unless they call {@link #materializeAll} first,
+ * and must not run while bodies are parsed.
+ */
+public class LazyCompilationUnit {
+
+    private static class LazyBody {
+
+        int start;
+
+        int end;
+
+        final BodyParser.Kind kind;
+
+        volatile boolean materialized;
+
+        LazyBody(int start, int end, BodyParser.Kind kind) {
+            this.start = start;
+            this.end = end;
+            this.kind = kind;
+        }
+    }
+
+    private final CompilationUnit compilationUnit;
+
+    private final BodyParser bodyParser;
+
+    private final String parserName;
+
+    private final Map<BodyDeclaration, LazyBody> bodies = new IdentityHashMap<>();
+
+    private final int outlineNodes;
+
+    private String input;
+
+    private int pendingBodies;
+
+    private long pendingBodyChars;
+
+    private long materializedNodes;
+
+    private LazyCompilationUnit(CompilationUnit compilationUnit, String input, OutlineFilter.Bodies outline, BodyParser bodyParser, String parserName) {
+        this.compilationUnit = compilationUnit;
+        this.input = input;
+        this.bodyParser = bodyParser;
+        this.parserName = parserName;
+        this.outlineNodes = Utils.countNodes(compilationUnit);
+
+        // The declarations with a body are visited in the order of the source, as are the bodies of the outline
+        List<BodyDeclaration> declarations = new ArrayList<>();
+        compilationUnit.accept(new ASTVisitor() {
+            @Override
+            public boolean visit(MethodDeclaration node) {
+                if (node.getBody() != null) {
+                    declarations.add(node);
+                }
+                return true;
+            }
+
+            @Override
+            public boolean visit(Initializer node) {
+                declarations.add(node);
+                return true;
+            }
+        });
+        if (declarations.size() != outline.size()) {
+            throw new RuntimeException("The outline has " + outline.size() + " bodies, but " + declarations.size() + " declarations with a body");
+        }
+
+        for (int i = 0; i < outline.size(); i++) {
+            BodyDeclaration declaration = declarations.get(i);
+            BodyParser.Kind kind = declaration instanceof Initializer ? BodyParser.Kind.INITIALIZER
+                    : ((MethodDeclaration) declaration).isConstructor() ? BodyParser.Kind.CONSTRUCTOR : BodyParser.Kind.METHOD;
+            bodies.put(declaration, new LazyBody(outline.getStart(i), outline.getEnd(i), kind));
+            pendingBodyChars += outline.getEnd(i) - outline.getStart(i);
+        }
+        this.pendingBodies = outline.size();
+        if (pendingBodies == 0) {
+            this.input = null;
+        }
+    }
+
+    /**
+     * Parses the outline of the input with the parser, or returns null if it cannot be parsed. The bodies are
+     * parsed with the body parser, and their parse time is recorded in {@link Metrics} as "materialize" under the
+     * given name.
+     */
+    public static <T> LazyCompilationUnit parse(String input, JavaSourceParser<T> parser, BodyParser bodyParser, String parserName) {
+        OutlineFilter.Bodies outline = OutlineFilter.blankBodies(input);
+        T parseTree = parser.parse(outline.getText());
+        if (parseTree == null) {
+            return null;
+        }
+        return new LazyCompilationUnit(parser.convert(parseTree), input, outline, bodyParser, parserName);
+    }
+
+    public CompilationUnit getCompilationUnit() {
+        return compilationUnit;
+    }
+
+    public Block getBody(MethodDeclaration method) {
+        materialize(method);
+        return method.getBody();
+    }
+
+    public Block getBody(Initializer initializer) {
+        materialize(initializer);
+        return initializer.getBody();
+    }
+
+    public boolean isMaterialized(BodyDeclaration declaration) {
+        LazyBody body = bodies.get(declaration);
+        return body == null || body.materialized;
+    }
+
+    public void materializeAll() {
+        for (BodyDeclaration declaration : bodies.keySet()) {
+            materialize(declaration);
+        }
+    }
+
+    private void materialize(BodyDeclaration declaration) {
+        LazyBody body = bodies.get(declaration);
+        if (body == null || body.materialized) {
+            return;
+        }
+        synchronized (this) {
+            if (body.materialized) {
+                return;
+            }
+            String source = input.substring(body.start, body.end);
+            Block block = Metrics.time("materialize", parserName, () -> bodyParser.parseBody(source, body.kind, compilationUnit.getAST()));
+            setBody(declaration, block);
+            materializedNodes += Utils.countNodes(block);
+            pendingBodyChars -= body.end - body.start;
+            if (--pendingBodies == 0) {
+                input = null;
+            }
+            body.materialized = true;
+        }
+    }
+
+    /**
+     * Applies an edit to the input of the unit, given the edited input, and returns false if the edit is not within
+     * the braces of a body, or if the edited text of the body is not a body any more. Otherwise, the body is reset
+     * to an empty block, and parsed again on its next access.
+     */
+    public synchronized boolean applyEdit(IncrementalAntlrParser.Edit edit, String editedInput) {
+        BodyDeclaration declaration = null;
+        LazyBody edited = null;
+        for (Map.Entry<BodyDeclaration, LazyBody> entry : bodies.entrySet()) {
+            LazyBody body = entry.getValue();
+            if (body.start < edit.getOffset() && edit.getOffset() + edit.getLength() < body.end) {
+                declaration = entry.getKey();
+                edited = body;
+                break;
+            }
+        }
+        int delta = edit.getDelta();
+        if (edited == null || !OutlineFilter.isBody(editedInput.substring(edited.start, edited.end + delta))) {
+            return false;
+        }
+
+        for (LazyBody body : bodies.values()) {
+            if (body.start > edited.start) {
+                body.start += delta;
+                body.end += delta;
+            }
+        }
+        edited.end += delta;
+        if (edited.materialized) {
+            materializedNodes -= Utils.countNodes(getBlock(declaration));
+            setBody(declaration, compilationUnit.getAST().newBlock());
+            pendingBodies++;
+            pendingBodyChars += edited.end - edited.start;
+            edited.materialized = false;
+        } else {
+            pendingBodyChars += delta;
+        }
+        input = editedInput;
+        return true;
+    }
+
+    private static Block getBlock(BodyDeclaration declaration) {
+        return declaration instanceof Initializer ? ((Initializer) declaration).getBody() : ((MethodDeclaration) declaration).getBody();
+    }
+
+    private static void setBody(BodyDeclaration declaration, Block block) {
+        if (declaration instanceof Initializer) {
+            ((Initializer) declaration).setBody(block);
+        } else {
+            ((MethodDeclaration) declaration).setBody(block);
+        }
+    }
+
+    /**
+     * Returns the number of bodies, those not parsed yet and their size in chars, the chars of the input retained
+     * for them, and the number of AST nodes of the outline and of the parsed bodies.
+     */
+    public synchronized Map<String, Long> getStatistics() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        map.put("bodies", (long) bodies.size());
+        map.put("pendingBodies", (long) pendingBodies);
+        map.put("pendingBodyChars", pendingBodyChars);
+        map.put("retainedInputChars", input == null ? 0L : input.length());
+        map.put("outlineNodes", (long) outlineNodes);
+        map.put("materializedNodes", materializedNodes);
+        return map;
+    }
+
+}
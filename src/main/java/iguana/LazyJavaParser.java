@@ -0,0 +1,65 @@
+package iguana;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Parses the outline of a file with the given parser into a {@link LazyCompilationUnit}, whose bodies are parsed
+ * on first access. Converting parses all bodies, so that the result can be verified against JDT. After an edit
+ * within a body, only that body is parsed again.
+ */
+public class LazyJavaParser<T> implements JavaSourceParser<LazyCompilationUnit> {
+
+    private final JavaSourceParser<T> parser;
+
+    private final BodyParser bodyParser;
+
+    public LazyJavaParser(JavaSourceParser<T> parser, BodyParser bodyParser) {
+        this.parser = parser;
+        this.bodyParser = bodyParser;
+    }
+
+    @Override
+    public String getName() {
+        return parser.getName() + "Lazy";
+    }
+
+    @Override
+    public String getVersion() {
+        return parser.getVersion() + "-lazy";
+    }
+
+    @Override
+    public LazyCompilationUnit parse(String input) {
+        return LazyCompilationUnit.parse(input, parser, bodyParser, getName());
+    }
+
+    /**
+     * Parses the input of a previous result after an edit. If the edit is within the braces of a body, the previous
+     * result is updated in place and returned, and only the body is parsed again, on its next access. Otherwise,
+     * the edited input is parsed. The previous result must not be used afterwards.
+     */
+    public LazyCompilationUnit reparse(LazyCompilationUnit previous, String input, IncrementalAntlrParser.Edit edit) {
+        String editedInput = edit.apply(input);
+        return previous.applyEdit(edit, editedInput) ? previous : parse(editedInput);
+    }
+
+    @Override
+    public CompilationUnit convert(LazyCompilationUnit parseTree) {
+        parseTree.materializeAll();
+        return parseTree.getCompilationUnit();
+    }
+
+    @Override
+    public int countNodes(LazyCompilationUnit parseTree) {
+        return Utils.countNodes(parseTree.getCompilationUnit());
+    }
+
+    @Override
+    public Map<String, Long> getStatistics(LazyCompilationUnit parseTree) {
+        return parseTree != null ? parseTree.getStatistics() : Collections.emptyMap();
+    }
+
+}
@@ -0,0 +1,129 @@
+package iguana;
+
+import antlr4java.JavaParser;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shrinks an ANTLR parse tree that is kept after parsing:
+ *
+ * - the single-child chains that {@link AntlrToJavaParseTreeVisitor} can do without are dropped, i.e., a primary
+ *   with a single child below a primary expression and the integer or float literal below a literal,
+ * - child lists are replaced by lists of their exact size,
+ * - with releaseTokens, every token is replaced by a copy that holds its text, so that the tree no longer
+ *   retains the lexer and its character stream. Equal token texts are shared.
+ *
+ * Other chains, e.g., expression list to expression, stay as the converter reaches their nodes by type. The
+ * trimmed tree cannot be extended, so it must not be given to {@link IncrementalAntlrParser}.
+ */
+public class LeanAntlrTrees {
+
+    private static final Map<Class<?>, Field[]> TOKEN_FIELDS = new HashMap<>();
+
+    private final boolean releaseTokens;
+
+    private final Map<Token, Token> tokens = new IdentityHashMap<>();
+
+    private final Map<String, String> texts = new HashMap<>();
+
+    private LeanAntlrTrees(boolean releaseTokens) {
+        this.releaseTokens = releaseTokens;
+    }
+
+    public static <T extends ParserRuleContext> T trim(T parseTree, boolean releaseTokens) {
+        new LeanAntlrTrees(releaseTokens).visit(parseTree);
+        return parseTree;
+    }
+
+    private void visit(ParserRuleContext ctx) {
+        if (ctx.children != null) {
+            List<ParseTree> children = new ArrayList<>(ctx.children.size());
+            for (ParseTree child : ctx.children) {
+                children.add(trim(ctx, child));
+            }
+            ctx.children = children.size() == 1 ? Collections.singletonList(children.get(0)) : Arrays.asList(children.toArray(new ParseTree[0]));
+        }
+        if (releaseTokens) {
+            ctx.start = release(ctx.start);
+            ctx.stop = release(ctx.stop);
+            for (Field field : getTokenFields(ctx.getClass())) {
+                try {
+                    field.set(ctx, release((Token) field.get(ctx)));
+                } catch (IllegalAccessException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
+    private ParseTree trim(ParserRuleContext parent, ParseTree child) {
+        ParseTree node = collapse(parent, child);
+        if (node != child) {
+            if (node instanceof TerminalNodeImpl) {
+                ((TerminalNodeImpl) node).parent = parent;
+            } else {
+                ((RuleContext) node).parent = parent;
+            }
+        }
+        if (node instanceof ParserRuleContext) {
+            visit((ParserRuleContext) node);
+        } else if (releaseTokens && node instanceof TerminalNodeImpl) {
+            TerminalNodeImpl terminal = (TerminalNodeImpl) node;
+            terminal.symbol = release(terminal.symbol);
+        }
+        return node;
+    }
+
+    private static ParseTree collapse(ParserRuleContext parent, ParseTree child) {
+        if (parent instanceof JavaParser.PrimaryExprContext && child instanceof JavaParser.PrimaryContext && child.getChildCount() == 1) {
+            return collapse(parent, child.getChild(0));
+        }
+        if (parent instanceof JavaParser.LiteralContext && (child instanceof JavaParser.IntegerLiteralContext || child instanceof JavaParser.FloatLiteralContext)) {
+            return child.getChild(0);
+        }
+        return child;
+    }
+
+    private Token release(Token token) {
+        if (token == null) {
+            return token;
+        }
+        return tokens.computeIfAbsent(token, t -> {
+            CommonToken copy = new CommonToken(t.getType(), texts.computeIfAbsent(t.getText(), text -> text));
+            copy.setLine(t.getLine());
+            copy.setCharPositionInLine(t.getCharPositionInLine());
+            copy.setChannel(t.getChannel());
+            copy.setTokenIndex(t.getTokenIndex());
+            copy.setStartIndex(t.getStartIndex());
+            copy.setStopIndex(t.getStopIndex());
+            return copy;
+        });
+    }
+
+    /**
+     * The token fields of the generated contexts, i.e., the labels of tokens in the grammar.
+     */
+    private static Field[] getTokenFields(Class<?> clazz) {
+        synchronized (TOKEN_FIELDS) {
+            return TOKEN_FIELDS.computeIfAbsent(clazz, c -> Arrays.stream(c.getFields())
+                    .filter(field -> field.getType() == Token.class && !Modifier.isStatic(field.getModifiers()))
+                    .filter(field -> field.getDeclaringClass() != ParserRuleContext.class)
+                    .toArray(Field[]::new));
+        }
+    }
+
+}
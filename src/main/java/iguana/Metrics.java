@@ -0,0 +1,173 @@
+package iguana;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Process wide timers and counters per parser, e.g., the time spent per phase and the number of files, bytes,
+ * failures and timeouts, and the CPU time and allocated bytes of the threads that recorded them. The metrics are
+ * only kept in memory, {@link MetricsExporter} writes them to a file.
+ */
+public class Metrics {
+
+    private static final Map<String, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    private static final Map<String, Map<String, Counter>> counters = new ConcurrentHashMap<>();
+
+    private static final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    private static final ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * The CPU time and allocated bytes of the work done by other threads for the current thread.
+     */
+    private static final ThreadLocal<long[]> delegated = ThreadLocal.withInitial(() -> new long[2]);
+
+    private Metrics() {
+    }
+
+    public static Timer timer(String phase, String parser) {
+        return timers.computeIfAbsent(phase, p -> new ConcurrentHashMap<>()).computeIfAbsent(parser, p -> new Timer());
+    }
+
+    public static Counter counter(String name, String parser) {
+        return counters.computeIfAbsent(name, n -> new ConcurrentHashMap<>()).computeIfAbsent(parser, p -> new Counter());
+    }
+
+    /**
+     * Runs the given code and records its duration with the timer of the phase and parser.
+     */
+    public static <T> T time(String phase, String parser, Supplier<T> code) {
+        long start = System.nanoTime();
+        try {
+            return code.get();
+        } finally {
+            timer(phase, parser).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Adds the current thread to the threads whose CPU time and allocated bytes are reported.
+     */
+    public static void registerCurrentThread() {
+        threads.add(Thread.currentThread());
+    }
+
+    /**
+     * Returns the CPU time of the current thread, including the work delegated to other threads, or -1 if not
+     * supported.
+     */
+    public static long getCurrentThreadCpuTime() {
+        return threadBean.isCurrentThreadCpuTimeSupported() ? threadBean.getCurrentThreadCpuTime() + delegated.get()[0] : -1;
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread, including the work delegated to other threads, or -1 if
+     * not supported.
+     */
+    public static long getCurrentThreadAllocatedBytes() {
+        return threadBean.isThreadAllocatedMemorySupported() ? threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) + delegated.get()[1] : -1;
+    }
+
+    /**
+     * Attributes the CPU time and allocated bytes of work done by another thread, e.g., a parse run by
+     * {@link GuardedParser}, to the current thread.
+     */
+    public static void addDelegated(long cpuTime, long allocatedBytes) {
+        long[] work = delegated.get();
+        work[0] += Math.max(cpuTime, 0);
+        work[1] += Math.max(allocatedBytes, 0);
+    }
+
+    /**
+     * Returns the timers by phase and parser, sorted by name.
+     */
+    public static Map<String, Map<String, Timer>> getTimers() {
+        return sorted(timers);
+    }
+
+    public static Map<String, Map<String, Counter>> getCounters() {
+        return sorted(counters);
+    }
+
+    /**
+     * Returns the CPU time in nanoseconds and the allocated bytes of every registered thread that is still alive.
+     */
+    public static Map<String, long[]> getThreadReadings() {
+        Map<String, long[]> readings = new TreeMap<>();
+        threads.removeIf(thread -> !thread.isAlive());
+        for (Thread thread : threads) {
+            long cpuTime = threadBean.isThreadCpuTimeSupported() ? threadBean.getThreadCpuTime(thread.getId()) : -1;
+            long allocatedBytes = threadBean.isThreadAllocatedMemorySupported() ? threadBean.getThreadAllocatedBytes(thread.getId()) : -1;
+            readings.put(thread.getName() + "-" + thread.getId(), new long[]{cpuTime, allocatedBytes});
+        }
+        return readings;
+    }
+
+    /**
+     * Clears all metrics, e.g., after warming up.
+     */
+    public static void reset() {
+        timers.clear();
+        counters.clear();
+    }
+
+    private static <T> Map<String, Map<String, T>> sorted(Map<String, Map<String, T>> metrics) {
+        Map<String, Map<String, T>> result = new TreeMap<>();
+        metrics.forEach((name, byParser) -> result.put(name, new TreeMap<>(byParser)));
+        return result;
+    }
+
+    public static class Timer {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        public void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+    }
+
+    public static class Counter {
+
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long delta) {
+            value.add(delta);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+package iguana;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes the {@link Metrics} to a file in the Prometheus text format, if the name ends with .prom,
+ * or otherwise as JSON. The file is replaced atomically, so it can be read at any time, and written a last time
+ * when the exporter is closed.
+ *
+ * The drivers, the daemon and the conformance tests export to the file given with -Diguana.metrics, every
+ * -Diguana.metrics.intervalSeconds (10 by default).
+ */
+public class MetricsExporter implements AutoCloseable {
+
+    private final Path path;
+
+    private final boolean prometheus;
+
+    private final ScheduledExecutorService executor;
+
+    public MetricsExporter(Path path, long intervalSeconds) {
+        this.path = path;
+        this.prometheus = path.toString().endsWith(".prom");
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (intervalSeconds > 0) {
+            executor.scheduleAtFixedRate(this::writeQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public static boolean isEnabled() {
+        return System.getProperty("iguana.metrics") != null;
+    }
+
+    /**
+     * Returns an exporter to the file given with -Diguana.metrics, or null if it is not set.
+     */
+    public static MetricsExporter fromProperties() {
+        return isEnabled() ? new MetricsExporter(Paths.get(System.getProperty("iguana.metrics")), Long.getLong("iguana.metrics.intervalSeconds", 10)) : null;
+    }
+
+    /**
+     * Writes the metrics once to the file given with -Diguana.metrics, if it is set.
+     */
+    public static void writeIfEnabled() throws IOException {
+        if (isEnabled()) {
+            new MetricsExporter(Paths.get(System.getProperty("iguana.metrics")), 0).close();
+        }
+    }
+
+    public synchronized void write() throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(prometheus ? toPrometheus() : toJson());
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        write();
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (IOException e) {
+            System.err.println("Could not write metrics to " + path + ": " + e.getMessage());
+        }
+    }
+
+    static String toPrometheus() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Map<String, Metrics.Timer>> entry : Metrics.getTimers().entrySet()) {
+            String name = "iguana_" + entry.getKey() + "_seconds";
+            sb.append("# TYPE ").append(name).append(" summary\n");
+            entry.getValue().forEach((parser, timer) -> {
+                sb.append(name).append("_count{parser=\"").append(parser).append("\"} ").append(timer.getCount()).append('\n');
+                sb.append(name).append("_sum{parser=\"").append(parser).append("\"} ").append(timer.getTotalNanos() / 1e9).append('\n');
+            });
+            sb.append("# TYPE ").append(name).append("_max gauge\n");
+            entry.getValue().forEach((parser, timer) ->
+                    sb.append(name).append("_max{parser=\"").append(parser).append("\"} ").append(timer.getMaxNanos() / 1e9).append('\n'));
+        }
+        for (Map.Entry<String, Map<String, Metrics.Counter>> entry : Metrics.getCounters().entrySet()) {
+            String name = "iguana_" + entry.getKey() + "_total";
+            sb.append("# TYPE ").append(name).append(" counter\n");
+            entry.getValue().forEach((parser, counter) ->
+                    sb.append(name).append("{parser=\"").append(parser).append("\"} ").append(counter.get()).append('\n'));
+        }
+        Map<String, long[]> threads = Metrics.getThreadReadings();
+        sb.append("# TYPE iguana_thread_cpu_seconds gauge\n");
+        threads.forEach((thread, reading) ->
+                sb.append("iguana_thread_cpu_seconds{thread=\"").append(thread).append("\"} ").append(reading[0] / 1e9).append('\n'));
+        sb.append("# TYPE iguana_thread_allocated_bytes gauge\n");
+        threads.forEach((thread, reading) ->
+                sb.append("iguana_thread_allocated_bytes{thread=\"").append(thread).append("\"} ").append(reading[1]).append('\n'));
+        return sb.toString();
+    }
+
+    static String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n  \"timestamp\": ").append(System.currentTimeMillis()).append(",\n  \"timers\": {");
+        String separator = "";
+        for (Map.Entry<String, Map<String, Metrics.Timer>> entry : Metrics.getTimers().entrySet()) {
+            sb.append(separator).append("\n    \"").append(entry.getKey()).append("\": {");
+            String parserSeparator = "";
+            for (Map.Entry<String, Metrics.Timer> timer : entry.getValue().entrySet()) {
+                sb.append(parserSeparator).append("\"").append(timer.getKey()).append("\": {\"count\": ").append(timer.getValue().getCount())
+                        .append(", \"totalNs\": ").append(timer.getValue().getTotalNanos())
+                        .append(", \"maxNs\": ").append(timer.getValue().getMaxNanos()).append("}");
+                parserSeparator = ", ";
+            }
+            sb.append("}");
+            separator = ",";
+        }
+        sb.append("\n  },\n  \"counters\": {");
+        separator = "";
+        for (Map.Entry<String, Map<String, Metrics.Counter>> entry : Metrics.getCounters().entrySet()) {
+            sb.append(separator).append("\n    \"").append(entry.getKey()).append("\": {");
+            String parserSeparator = "";
+            for (Map.Entry<String, Metrics.Counter> counter : entry.getValue().entrySet()) {
+                sb.append(parserSeparator).append("\"").append(counter.getKey()).append("\": ").append(counter.getValue().get());
+                parserSeparator = ", ";
+            }
+            sb.append("}");
+            separator = ",";
+        }
+        sb.append("\n  },\n  \"threads\": {");
+        separator = "";
+        for (Map.Entry<String, long[]> entry : Metrics.getThreadReadings().entrySet()) {
+            sb.append(separator).append("\n    \"").append(entry.getKey()).append("\": {\"cpuNs\": ").append(entry.getValue()[0])
+                    .append(", \"allocatedBytes\": ").append(entry.getValue()[1]).append("}");
+            separator = ",";
+        }
+        sb.append("\n  }\n}\n");
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,358 @@
+package iguana;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Blanks the bodies of methods, constructors and lambdas with spaces, keeping line breaks, so that a parser only
+ * sees the declarations, and the extents of the remaining nodes do not change. The bodies are found by brace
+ * matching, skipping comments and literals, and by the tokens before an opening brace, e.g., the parameters of a
+ * method in a type body or the arrow of a lambda. Like JDT with {@code ASTParser.setIgnoreMethodBodies(true)},
+ * initializer blocks and field initializers are kept, but the method bodies of the anonymous and local classes in
+ * them are blanked.
+ *
+ * For lazy parsing, {@link #blankBodies} blanks the bodies of methods, constructors and initializers instead, and
+ * keeps their extents, and {@link #isBody} checks whether an edited body is still one.
+ */
+public class OutlineFilter {
+
+    private static final Set<String> CONTROL_KEYWORDS = new HashSet<>(Arrays.asList("if", "while", "for", "switch", "catch", "synchronized", "try"));
+
+    private enum Kind {TYPE, ENUM, CODE}
+
+    private static class Context {
+
+        final Kind kind;
+
+        int parenDepth;
+
+        /**
+         * The class, interface or enum keyword, if seen since the last member or statement.
+         */
+        String typeKeyword;
+
+        /**
+         * A field initializer or annotation element default value follows.
+         */
+        boolean expression;
+
+        boolean parameters;
+
+        boolean enumConstants;
+
+        Context(Kind kind) {
+            this.kind = kind;
+            this.enumConstants = kind == Kind.ENUM;
+        }
+
+        boolean isTypeBody() {
+            return kind != Kind.CODE && parenDepth == 0 && !expression;
+        }
+
+        void reset() {
+            typeKeyword = null;
+            expression = false;
+            parameters = false;
+        }
+    }
+
+    private final String input;
+
+    private final char[] output;
+
+    private final boolean lambdas;
+
+    private final boolean initializers;
+
+    private int[] bodyStarts = new int[16];
+
+    private int[] bodyEnds = new int[16];
+
+    private int bodies;
+
+    private int pos;
+
+    private String previous = "";
+
+    private String lastParenOwner = "";
+
+    private final Deque<String> parenOwners = new ArrayDeque<>();
+
+    private final Deque<Context> contexts = new ArrayDeque<>();
+
+    private OutlineFilter(String input, boolean lambdas, boolean initializers) {
+        this.input = input;
+        this.output = input.toCharArray();
+        this.lambdas = lambdas;
+        this.initializers = initializers;
+    }
+
+    public static String apply(String input) {
+        OutlineFilter filter = new OutlineFilter(input, true, false);
+        filter.run();
+        return new String(filter.output);
+    }
+
+    /**
+     * Blanks the bodies of methods, constructors and initializers, but not those of lambdas, and returns the text
+     * and the extents of the bodies, including their braces, in the order of the source.
+     */
+    public static Bodies blankBodies(String input) {
+        OutlineFilter filter = new OutlineFilter(input, false, true);
+        filter.run();
+        return new Bodies(new String(filter.output), Arrays.copyOf(filter.bodyStarts, filter.bodies), Arrays.copyOf(filter.bodyEnds, filter.bodies));
+    }
+
+    /**
+     * Returns true if the text is a body, whose opening brace is the first character and is closed by the last one.
+     * Then the text can be replaced by another body without changing the outline or how the rest is lexed.
+     */
+    public static boolean isBody(String text) {
+        if (text.isEmpty() || text.charAt(0) != '{') {
+            return false;
+        }
+        OutlineFilter filter = new OutlineFilter(text, false, true);
+        filter.pos = 1;
+        return filter.skipBody() && filter.pos == text.length() - 1;
+    }
+
+    public static class Bodies {
+
+        private final String text;
+
+        private final int[] starts;
+
+        private final int[] ends;
+
+        Bodies(String text, int[] starts, int[] ends) {
+            this.text = text;
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int size() {
+            return starts.length;
+        }
+
+        public int getStart(int i) {
+            return starts[i];
+        }
+
+        public int getEnd(int i) {
+            return ends[i];
+        }
+    }
+
+    private void run() {
+        contexts.push(new Context(Kind.TYPE));
+        String token;
+        while ((token = nextToken()) != null) {
+            Context context = contexts.peek();
+            switch (token) {
+                case "(":
+                    parenOwners.push(previous);
+                    if (++context.parenDepth == 1 && context.kind != Kind.CODE && !context.expression) {
+                        context.parameters = true;
+                    }
+                    break;
+                case ")":
+                    lastParenOwner = parenOwners.isEmpty() ? "" : parenOwners.pop();
+                    context.parenDepth = Math.max(0, context.parenDepth - 1);
+                    break;
+                case "=":
+                    if (context.isTypeBody()) {
+                        context.expression = true;
+                    }
+                    break;
+                case "default":
+                    // The default value of an annotation type element, not the modifier of an interface method
+                    if (context.isTypeBody() && (previous.equals(")") || previous.equals("]"))) {
+                        context.expression = true;
+                    }
+                    break;
+                case "class":
+                case "interface":
+                case "enum":
+                    if (context.parenDepth == 0 && !previous.equals(".")) {
+                        context.typeKeyword = token;
+                    }
+                    break;
+                case ";":
+                case ",":
+                    if (context.parenDepth == 0) {
+                        if (context.kind == Kind.ENUM && token.equals(";")) {
+                            context.enumConstants = false;
+                        }
+                        if (token.equals(";") || (context.kind == Kind.ENUM && context.enumConstants)) {
+                            context.reset();
+                        }
+                    }
+                    break;
+                case "{":
+                    openBrace(context);
+                    token = previous;
+                    break;
+                case "}":
+                    closeBrace();
+                    break;
+                default:
+                    break;
+            }
+            previous = token;
+        }
+    }
+
+    private void openBrace(Context context) {
+        if (context.isTypeBody()) {
+            if (context.typeKeyword != null) {
+                contexts.push(new Context(context.typeKeyword.equals("enum") ? Kind.ENUM : Kind.TYPE));
+            } else if (context.kind == Kind.ENUM && context.enumConstants) {
+                contexts.push(new Context(Kind.TYPE));
+            } else if (context.parameters || initializers) {
+                addBody(blankBody());
+                context.reset();
+                previous = "}";
+                return;
+            } else {
+                contexts.push(new Context(Kind.CODE));
+            }
+        } else if (lambdas && previous.equals("->")) {
+            blankBody();
+            previous = "}";
+            return;
+        } else if (context.typeKeyword != null && context.parenDepth == 0) {
+            contexts.push(new Context(context.typeKeyword.equals("enum") ? Kind.ENUM : Kind.TYPE));
+        } else if (previous.equals(")") && !CONTROL_KEYWORDS.contains(lastParenOwner)) {
+            // An anonymous class
+            contexts.push(new Context(Kind.TYPE));
+        } else {
+            contexts.push(new Context(Kind.CODE));
+        }
+        previous = "{";
+    }
+
+    private void closeBrace() {
+        if (contexts.size() > 1) {
+            contexts.pop();
+        }
+        Context parent = contexts.peek();
+        if (parent.kind == Kind.CODE) {
+            parent.typeKeyword = null;
+        } else if (parent.isTypeBody()) {
+            parent.reset();
+        }
+    }
+
+    private void addBody(int start) {
+        if (bodies == bodyStarts.length) {
+            bodyStarts = Arrays.copyOf(bodyStarts, bodies * 2);
+            bodyEnds = Arrays.copyOf(bodyEnds, bodies * 2);
+        }
+        bodyStarts[bodies] = start;
+        bodyEnds[bodies++] = pos;
+    }
+
+    /**
+     * Blanks everything up to the brace that closes the one before pos, moves past it and returns the position
+     * of the opening brace.
+     */
+    private int blankBody() {
+        int start = pos;
+        skipBody();
+        for (int i = start; i < pos; i++) {
+            if (output[i] != '\n' && output[i] != '\r') {
+                output[i] = ' ';
+            }
+        }
+        pos = Math.min(pos + 1, input.length());
+        return start - 1;
+    }
+
+    /**
+     * Moves to the brace that closes the one before pos, or to the end, and returns false if there is none.
+     */
+    private boolean skipBody() {
+        int depth = 1;
+        while (pos < input.length()) {
+            char c = input.charAt(pos);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return true;
+            } else if (c == '/' || c == '"' || c == '\'') {
+                if (skipCommentOrLiteral()) {
+                    continue;
+                }
+            }
+            pos++;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the next token, an identifier or keyword, a number, "->" or a single character, or null at the end.
+     * Comments and whitespace are skipped, and literals are returned as a quote.
+     */
+    private String nextToken() {
+        while (pos < input.length()) {
+            char c = input.charAt(pos);
+            if (Character.isWhitespace(c)) {
+                pos++;
+            } else if ((c == '/' || c == '"' || c == '\'') && skipCommentOrLiteral()) {
+                if (c != '/') {
+                    return String.valueOf(c);
+                }
+            } else if (Character.isJavaIdentifierPart(c)) {
+                int start = pos;
+                while (pos < input.length() && Character.isJavaIdentifierPart(input.charAt(pos))) {
+                    pos++;
+                }
+                return input.substring(start, pos);
+            } else if (c == '-' && input.startsWith("->", pos)) {
+                pos += 2;
+                return "->";
+            } else {
+                pos++;
+                return String.valueOf(c);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Skips a comment or a string or character literal at pos, returns false if there is none.
+     */
+    private boolean skipCommentOrLiteral() {
+        char c = input.charAt(pos);
+        if (c == '/' && input.startsWith("//", pos)) {
+            int end = input.indexOf('\n', pos);
+            pos = end == -1 ? input.length() : end;
+            return true;
+        }
+        if (c == '/' && input.startsWith("/*", pos)) {
+            int end = input.indexOf("*/", pos + 2);
+            pos = end == -1 ? input.length() : end + 2;
+            return true;
+        }
+        if (c == '"' || c == '\'') {
+            pos++;
+            while (pos < input.length() && input.charAt(pos) != c && input.charAt(pos) != '\n') {
+                if (input.charAt(pos) == '\\') {
+                    pos++;
+                }
+                pos++;
+            }
+            pos = Math.min(pos + 1, input.length());
+            return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,174 @@
+package iguana;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static iguana.Utils.getFiles;
+import static iguana.Utils.getSourceDir;
+
+/**
+ * Processes all Java files of a project in the source folder on a pool of worker threads, each with its own
+ * parser. Files are scheduled largest first, so that a single huge file does not run alone at the end, and files
+ * smaller than the batch size are grouped into batches of about that size to reduce scheduling overhead.
+ * With -Diguana.results=[file], a record per file is written to that file, and with -Diguana.metrics=[file] the
+ * {@link Metrics} are written periodically to that file. With -Diguana.triage=[dir], the slowest and most
+ * allocating files are written to that directory, see {@link Triage}.
+ */
+public class ParallelCorpusRun {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Missing parameters: ParallelCorpusRun <parserName> <projectName> [<threads>] [<batchKB>]");
+            return;
+        }
+        String parserName = args[0];
+        String projectName = args[1];
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (args.length > 2) {
+            threads = Integer.parseInt(args[2]);
+        }
+
+        long batchBytes = 64 * 1024;
+        if (args.length > 3) {
+            batchBytes = Long.parseLong(args[3]) * 1024;
+        }
+
+        if (getSourceDir() == null) {
+            throw new RuntimeException("The environment variable 'SOURCE_DIR' is not set");
+        }
+
+        List<Path> files = getFiles(getSourceDir() + "/" + projectName, ".java");
+
+        Map<Path, Long> sizes = new HashMap<>();
+        for (Path file : files) {
+            sizes.put(file, Files.size(file));
+        }
+        long bytes = sizes.values().stream().mapToLong(Long::longValue).sum();
+
+        List<List<Path>> batches = schedule(files, sizes, batchBytes);
+
+        List<Worker> workers = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger count = new AtomicInteger();
+        long wallTime;
+
+        try (ResultWriter results = ResultWriter.fromProperties(); MetricsExporter metrics = MetricsExporter.fromProperties()) {
+            ThreadLocal<Worker> worker = ThreadLocal.withInitial(() -> {
+                Worker w = new Worker(new FileProcessor<>(GuardedParser.guard(parserName)), results);
+                workers.add(w);
+                return w;
+            });
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+            long start = System.nanoTime();
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (List<Path> batch : batches) {
+                    futures.add(executor.submit(() -> count.addAndGet(worker.get().process(batch))));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                wallTime = System.nanoTime() - start;
+            } finally {
+                // On failure, the remaining batches are cancelled, and a batch that is still parsing does not keep
+                // the JVM alive, as the pool threads are daemons
+                executor.shutdownNow();
+            }
+        }
+        Triage.write();
+
+        long cpuTime = workers.stream().mapToLong(w -> w.cpuTime).sum();
+
+        System.out.println(count.get());
+        System.out.println(String.format("files: %d, batches: %d, threads: %d", files.size(), batches.size(), threads));
+        System.out.println(String.format("wall: %.1f ms, cpu: %.1f ms, throughput: %.1f files/s, %.1f KB/s",
+                wallTime / 1e6, cpuTime / 1e6, files.size() / (wallTime / 1e9), bytes / 1024.0 / (wallTime / 1e9)));
+        for (int i = 0; i < workers.size(); i++) {
+            Worker w = workers.get(i);
+            System.out.println(String.format("worker %d: %d files, busy %.1f ms, cpu %.1f ms, utilization %.1f%%",
+                    i, w.files, w.busyTime / 1e6, w.cpuTime / 1e6, 100.0 * w.busyTime / wallTime));
+        }
+    }
+
+    /**
+     * Orders the files by decreasing size. Files of at least batchBytes form a batch on their own, smaller files
+     * are grouped until a batch reaches batchBytes.
+     */
+    static List<List<Path>> schedule(List<Path> files, Map<Path, Long> sizes, long batchBytes) {
+        List<Path> sorted = new ArrayList<>(files);
+        sorted.sort(Comparator.comparingLong(sizes::get).reversed());
+
+        List<List<Path>> batches = new ArrayList<>();
+        List<Path> batch = new ArrayList<>();
+        long size = 0;
+        for (Path file : sorted) {
+            batch.add(file);
+            size += sizes.get(file);
+            if (size >= batchBytes) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                size = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static class Worker {
+
+        private final FileProcessor<?> processor;
+
+        private final ResultWriter results;
+
+        private int files;
+
+        private long busyTime;
+
+        private long cpuTime;
+
+        Worker(FileProcessor<?> processor, ResultWriter results) {
+            this.processor = processor;
+            this.results = results;
+        }
+
+        int process(List<Path> batch) throws IOException {
+            long start = System.nanoTime();
+            long cpuStart = Metrics.getCurrentThreadCpuTime();
+
+            int count = 0;
+            for (Path path : batch) {
+                FileResult result = processor.process(path);
+                if (result.isSuccess()) {
+                    count++;
+                }
+                if (results != null) {
+                    results.write(result);
+                }
+            }
+
+            files += batch.size();
+            busyTime += System.nanoTime() - start;
+            cpuTime += Metrics.getCurrentThreadCpuTime() - cpuStart;
+            return count;
+        }
+    }
+
+}
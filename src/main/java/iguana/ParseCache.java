@@ -0,0 +1,153 @@
+package iguana;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least recently used cache of parse trees and their JDT conversions, bounded by the estimated bytes they
+ * retain. Entries are looked up by key when parsing and by parse tree when converting.
+ */
+public class ParseCache<T> {
+
+    static class Entry<T> {
+
+        private final String key;
+
+        private final T parseTree;
+
+        private final int length;
+
+        private CompilationUnit compilationUnit;
+
+        private long bytes;
+
+        Entry(String key, T parseTree, int length, long bytes) {
+            this.key = key;
+            this.parseTree = parseTree;
+            this.length = length;
+            this.bytes = bytes;
+        }
+
+        T getParseTree() {
+            return parseTree;
+        }
+
+        int getLength() {
+            return length;
+        }
+
+        CompilationUnit getCompilationUnit() {
+            return compilationUnit;
+        }
+    }
+
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<Object, Entry<T>> entriesByParseTree = new IdentityHashMap<>();
+
+    private long bytes;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private long evictedBytes;
+
+    public ParseCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized Entry<T> get(String key) {
+        Entry<T> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return entry;
+    }
+
+    synchronized Entry<T> get(T parseTree) {
+        return entriesByParseTree.get(parseTree);
+    }
+
+    synchronized void put(String key, T parseTree, int length, long bytes) {
+        Entry<T> entry = new Entry<>(key, parseTree, length, bytes);
+        Entry<T> previous = entries.put(key, entry);
+        if (previous != null) {
+            remove(previous);
+        }
+        entriesByParseTree.put(parseTree, entry);
+        this.bytes += bytes;
+        evict();
+    }
+
+    synchronized void setCompilationUnit(Entry<T> entry, CompilationUnit compilationUnit, long bytes) {
+        if (entries.get(entry.key) != entry) {
+            return;
+        }
+        entry.compilationUnit = compilationUnit;
+        entry.bytes += bytes;
+        this.bytes += bytes;
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Entry<T>> it = entries.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Entry<T> entry = it.next();
+            it.remove();
+            remove(entry);
+            evictions++;
+            evictedBytes += entry.bytes;
+        }
+    }
+
+    private void remove(Entry<T> entry) {
+        entriesByParseTree.remove(entry.parseTree);
+        bytes -= entry.bytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized double getHitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getEvictedBytes() {
+        return evictedBytes;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("entries: %d, bytes: %d, hits: %d, misses: %d, hit rate: %.3f, evictions: %d, evicted bytes: %d",
+                entries.size(), bytes, hits, misses, getHitRate(), evictions, evictedBytes);
+    }
+
+}
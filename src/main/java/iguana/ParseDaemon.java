@@ -0,0 +1,163 @@
+package iguana;
+
+import iguana.synthetic.JavaSourceGenerator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A long-running process that keeps warmed parsers and processes files on request, so that per-file runs do not
+ * pay for JVM startup, grammar loading and JIT warmup each time.
+ *
+ * Requests are read from stdin, one per line, in the form
+ *
+ *   [parser] [options] [path]
+ *
+ * where options is "-" or a comma-separated list of "convert" and "verify". For every request one tab-separated
+ * line is written to stdout:
+ *
+ *   [path] [parser] [outcome] [bytes] [readNs] [parseNs] [convertNs] [verifyNs]
+ *
+ * or "error [message]" if the request could not be processed. The parsers passed as arguments are loaded and
+ * warmed up before "ready" is written; other parsers are loaded on their first request. With -Diguana.cacheMB,
+ * parse results are cached by content and "stats" returns the cache metrics. With -Diguana.metrics=[file], the
+ * {@link Metrics} of the requests, without the warmup, are written periodically to that file. "quit" or the end
+ * of stdin stops the daemon, after which the outliers are written with -Diguana.triage=[dir], see {@link Triage}.
+ */
+public class ParseDaemon {
+
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("iguana.daemon.warmup", 20);
+
+    private final Map<String, JavaSourceParser<?>> parsers = new HashMap<>();
+
+    private final Map<String, FileProcessor<?>> processors = new HashMap<>();
+
+    public static void main(String[] args) throws IOException {
+        // Only responses are written to stdout, anything else printed by the parsers goes to stderr
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        System.setOut(System.err);
+
+        ParseDaemon daemon = new ParseDaemon();
+        for (String parserName : args) {
+            daemon.warmup(parserName);
+        }
+        Metrics.reset();
+        Triage.reset();
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        out.println("ready");
+        out.flush();
+
+        try (MetricsExporter metrics = MetricsExporter.fromProperties()) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.equals("quit")) {
+                    break;
+                }
+                if (line.equals("stats")) {
+                    out.println(daemon.getCacheStatistics());
+                    out.flush();
+                    continue;
+                }
+                out.println(daemon.handle(line));
+                out.flush();
+            }
+        }
+        Triage.write();
+    }
+
+    public String handle(String request) {
+        String[] parts = request.split("\\s+", 3);
+        if (parts.length != 3) {
+            return "error Invalid request: " + request + ", should be: <parser> <options> <path>";
+        }
+
+        try {
+            FileResult result = getProcessor(parts[0], parts[1]).process(Paths.get(parts[2]));
+            return String.join("\t",
+                    result.getFileName(),
+                    result.getParser(),
+                    result.getOutcome().toString(),
+                    String.valueOf(result.getBytes()),
+                    String.valueOf(result.getReadNanos()),
+                    String.valueOf(result.getParseNanos()),
+                    String.valueOf(result.getConvertNanos()),
+                    String.valueOf(result.getVerifyNanos()));
+        } catch (IOException | RuntimeException e) {
+            return "error " + e.toString().replace('\n', ' ');
+        }
+    }
+
+    public String getCacheStatistics() {
+        StringBuilder sb = new StringBuilder("stats");
+        for (Map.Entry<String, JavaSourceParser<?>> entry : parsers.entrySet()) {
+            if (entry.getValue() instanceof CachingParser) {
+                sb.append('\t').append(entry.getKey()).append(": ").append(((CachingParser<?>) entry.getValue()).getCache());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Loads the parser and runs it through parse, convert and verify on generated sources, bypassing the cache.
+     */
+    public void warmup(String parserName) {
+        JavaSourceParser<?> parser = getParser(parserName);
+        if (parser instanceof CachingParser) {
+            parser = ((CachingParser<?>) parser).getParser();
+        }
+        FileProcessor<?> processor = new FileProcessor<>(parser, true, true);
+        JavaSourceGenerator generator = new JavaSourceGenerator().setMethods(20);
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            String input = generator.setSeed(i).generate("Warmup" + i);
+            processor.process("Warmup" + i + ".java", input);
+        }
+    }
+
+    private FileProcessor<?> getProcessor(String parserName, String options) {
+        boolean convert = false;
+        boolean verify = false;
+        if (!options.equals("-")) {
+            for (String option : options.split(",")) {
+                switch (option) {
+                    case "convert":
+                        convert = true;
+                        break;
+
+                    case "verify":
+                        convert = true;
+                        verify = true;
+                        break;
+
+                    default:
+                        throw new RuntimeException("Unknown option: " + option + ", should be: convert or verify");
+                }
+            }
+        }
+
+        JavaSourceParser<?> parser = getParser(parserName);
+        String key = parserName + "_" + convert + "_" + verify;
+        FileProcessor<?> processor = processors.get(key);
+        if (processor == null) {
+            processor = new FileProcessor<>(parser, convert, verify);
+            processors.put(key, processor);
+        }
+        return processor;
+    }
+
+    private JavaSourceParser<?> getParser(String parserName) {
+        return parsers.computeIfAbsent(parserName, name -> CachingParser.cache(GuardedParser.guard(name)));
+    }
+
+}
@@ -0,0 +1,12 @@
+package iguana;
+
+/**
+ * Thrown by {@link GuardedParser} when a parse exceeds its deadline or memory budget and has been cancelled.
+ */
+public class ParseTimeoutException extends RuntimeException {
+
+    public ParseTimeoutException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,203 @@
+package iguana;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes one record per processed file to a CSV file, if the name ends with .csv, or otherwise to a newline
+ * delimited JSON file. Records are queued without blocking the calling thread and written in batches by a
+ * background thread, which flushes after every batch.
+ *
+ * The drivers write their results to the file given with -Diguana.results.
+ */
+public class ResultWriter implements AutoCloseable {
+
+    private static final String[] COLUMNS = {"path", "bytes", "parser", "outcome", "readNs", "parseNs", "convertNs", "verifyNs", "allocatedBytes", "nodeCount", "statistics"};
+
+    private static final FileResult END = new FileResult(null, null, 0);
+
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private final BlockingQueue<FileResult> queue = new LinkedBlockingQueue<>();
+
+    private final Writer writer;
+
+    private final boolean csv;
+
+    private final Thread thread;
+
+    private volatile IOException error;
+
+    public ResultWriter(Path path) throws IOException {
+        this.writer = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), 64 * 1024);
+        this.csv = path.toString().endsWith(".csv");
+        if (csv) {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+        this.thread = new Thread(this::run, "result-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static boolean isEnabled() {
+        return System.getProperty("iguana.results") != null;
+    }
+
+    /**
+     * Returns a writer to the file given with -Diguana.results, or null if it is not set.
+     */
+    public static ResultWriter fromProperties() throws IOException {
+        return isEnabled() ? new ResultWriter(Paths.get(System.getProperty("iguana.results"))) : null;
+    }
+
+    public void write(FileResult result) {
+        if (error == null) {
+            queue.add(result);
+        }
+    }
+
+    /**
+     * Writes the remaining records and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        queue.add(END);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void run() {
+        List<FileResult> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                for (FileResult result : batch) {
+                    if (result == END) {
+                        writer.flush();
+                        return;
+                    }
+                    writer.write(csv ? toCSV(result) : toJSON(result));
+                    writer.write('\n');
+                }
+                writer.flush();
+                batch.clear();
+            }
+        } catch (IOException e) {
+            error = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Object[] values(FileResult result) {
+        return new Object[] {
+                result.getFileName(),
+                result.getBytes(),
+                result.getParser(),
+                result.getOutcome(),
+                result.getReadNanos(),
+                result.getParseNanos(),
+                result.getConvertNanos(),
+                result.getVerifyNanos(),
+                result.getAllocatedBytes(),
+                result.getNodeCount(),
+                result.getStatistics()
+        };
+    }
+
+    static String toCSV(FileResult result) {
+        Object[] values = values(result);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            String value = values[i] instanceof Map ? toCSV((Map<?, ?>) values[i]) : String.valueOf(values[i]);
+            if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+                sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                sb.append(value);
+            }
+        }
+        return sb.toString();
+    }
+
+    static String toJSON(FileResult result) {
+        Object[] values = values(result);
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(COLUMNS[i]).append("\":");
+            if (values[i] instanceof Number) {
+                sb.append(values[i]);
+            } else if (values[i] instanceof Map) {
+                appendJSONObject(sb, (Map<?, ?>) values[i]);
+            } else {
+                appendJSONString(sb, String.valueOf(values[i]));
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String toCSV(Map<?, ?> map) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            sb.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return sb.toString();
+    }
+
+    private static void appendJSONObject(StringBuilder sb, Map<?, ?> map) {
+        sb.append('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            appendJSONString(sb, String.valueOf(entry.getKey()));
+            sb.append(':').append(entry.getValue());
+        }
+        sb.append('}');
+    }
+
+    private static void appendJSONString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+}
@@ -0,0 +1,53 @@
+package iguana;
+
+import antlr4java.JavaLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+
+/**
+ * Tokenizes a Java source with the ANTLR {@link JavaLexer} and prints the tokens of the default channel back as
+ * text, i.e., without comments and with at most one space between two tokens. Tokens that were adjacent in the
+ * source stay adjacent, so that, e.g., the two '>' tokens of a shift operator are not separated, and no space is
+ * printed next to a separator, so that the Iguana parser only recognizes the layout that is needed to keep two
+ * tokens apart.
+ */
+public class TokenFrontEnd {
+
+    public static String toTokenText(String input) {
+        JavaLexer lexer = new JavaLexer(CharStreams.fromString(input));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(new AntlrJavaParser.ThrowingErrorListener());
+        StringBuilder sb = new StringBuilder(input.length() / 2);
+        Token previous = null;
+        for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+            if (token.getChannel() != Token.DEFAULT_CHANNEL) {
+                continue;
+            }
+            if (previous != null && previous.getStopIndex() + 1 != token.getStartIndex() && !isSeparator(previous) && !isSeparator(token)) {
+                sb.append(' ');
+            }
+            sb.append(token.getText());
+            previous = token;
+        }
+        return sb.toString();
+    }
+
+    private static boolean isSeparator(Token token) {
+        switch (token.getType()) {
+            case JavaLexer.LPAREN:
+            case JavaLexer.RPAREN:
+            case JavaLexer.LBRACE:
+            case JavaLexer.RBRACE:
+            case JavaLexer.LBRACK:
+            case JavaLexer.RBRACK:
+            case JavaLexer.SEMI:
+            case JavaLexer.COMMA:
+            case JavaLexer.DOT:
+            case JavaLexer.AT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+package iguana;
+
+import iguana.jfr.FlightRecording;
+import iguana.jfr.FlightRecordings;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static iguana.Utils.getFileContent;
+
+/**
+ * Keeps, per parser, the files with the highest processing time per byte and the files with the most allocated
+ * bytes per byte of a run, when -Diguana.triage=[dir] is set. The drivers and the AST tests write the lists at the
+ * end of the run with {@link #write()}:
+ *
+ *   [dir]/[parser]-slowest.csv and [dir]/[parser]-allocations.csv
+ *
+ * -Diguana.triage.top sets the number of files per list (10 by default) and -Diguana.triage.minBytes the size
+ * below which files are ignored (1024 by default), as their time per byte is dominated by fixed costs; timeouts
+ * are always kept. With -Diguana.triage.copyInputs=true, the files are copied to [dir]/[parser]/, and with
+ * -Diguana.triage.jfr=true, every file is processed again in a flight recording written next to it.
+ *
+ * When the property is not set, recording a file only reads a static field.
+ */
+public class Triage {
+
+    public static final String DIRECTORY_PROPERTY = "iguana.triage";
+
+    private static final boolean enabled = System.getProperty(DIRECTORY_PROPERTY) != null;
+
+    private static final int top = Integer.getInteger("iguana.triage.top", 10);
+
+    private static final long minBytes = Long.getLong("iguana.triage.minBytes", 1024);
+
+    private static final Map<String, TopFiles> slowest = new ConcurrentHashMap<>();
+
+    private static final Map<String, TopFiles> allocations = new ConcurrentHashMap<>();
+
+    private Triage() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void record(FileResult result) {
+        if (enabled) {
+            record(result.getParser(), result.getFileName(), result.getBytes(), result.getOutcome().toString(),
+                    result.getParseNanos() + result.getConvertNanos(), result.getAllocatedBytes());
+        }
+    }
+
+    /**
+     * Records a processed file, allocatedBytes is negative if unknown.
+     */
+    private static void record(String parser, String fileName, long bytes, String outcome, long nanos, long allocatedBytes) {
+        boolean timeout = outcome.equals(FileResult.Outcome.TIMEOUT.toString());
+        if (!enabled || (bytes < minBytes && !timeout)) {
+            return;
+        }
+        double size = Math.max(bytes, 1);
+        Entry entry = new Entry(fileName, bytes, outcome, nanos, allocatedBytes);
+        slowest.computeIfAbsent(parser, p -> new TopFiles()).offer(entry, timeout ? Double.POSITIVE_INFINITY : nanos / size);
+        if (allocatedBytes >= 0) {
+            allocations.computeIfAbsent(parser, p -> new TopFiles()).offer(entry, allocatedBytes / size);
+        }
+    }
+
+    /**
+     * Writes the lists, and the copies and recordings of their files if enabled, to the triage directory.
+     */
+    public static void write() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY));
+        Files.createDirectories(directory);
+
+        Map<String, Map<String, Entry>> filesByParser = new TreeMap<>();
+        write(directory, "slowest", "nsPerByte", slowest, filesByParser);
+        write(directory, "allocations", "allocatedPerByte", allocations, filesByParser);
+
+        for (Map.Entry<String, Map<String, Entry>> files : filesByParser.entrySet()) {
+            Path parserDirectory = directory.resolve(files.getKey());
+            if (Boolean.getBoolean("iguana.triage.copyInputs")) {
+                Files.createDirectories(parserDirectory);
+                for (Entry entry : files.getValue().values()) {
+                    Files.copy(Paths.get(entry.fileName), parserDirectory.resolve(toFileName(entry.fileName)), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (Boolean.getBoolean("iguana.triage.jfr")) {
+                Files.createDirectories(parserDirectory);
+                record(files.getKey(), files.getValue().values(), parserDirectory);
+            }
+        }
+    }
+
+    public static void reset() {
+        slowest.clear();
+        allocations.clear();
+    }
+
+    private static void write(Path directory, String list, String scoreName, Map<String, TopFiles> topFilesByParser, Map<String, Map<String, Entry>> filesByParser) throws IOException {
+        for (Map.Entry<String, TopFiles> topFiles : topFilesByParser.entrySet()) {
+            String parser = topFiles.getKey();
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(directory.resolve(parser + "-" + list + ".csv")))) {
+                out.println("rank,file,bytes,outcome,nanos,allocatedBytes," + scoreName);
+                int rank = 1;
+                for (Scored scored : topFiles.getValue().sorted()) {
+                    Entry entry = scored.entry;
+                    out.println(String.format("%d,%s,%d,%s,%d,%d,%.1f", rank++, entry.fileName, entry.bytes, entry.outcome,
+                            entry.nanos, entry.allocatedBytes, scored.score));
+                    filesByParser.computeIfAbsent(parser, p -> new TreeMap<>()).put(entry.fileName, entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes the files again, with conversion, in one flight recording each.
+     */
+    private static void record(String parserName, Iterable<Entry> entries, Path directory) throws IOException {
+        FileProcessor<?> processor = new FileProcessor<>(GuardedParser.guard(parserName), true, false);
+        for (Entry entry : entries) {
+            String input = getFileContent(Paths.get(entry.fileName));
+            FlightRecording recording = FlightRecordings.record();
+            processor.process(entry.fileName, input);
+            recording.dump(directory.resolve(toFileName(entry.fileName) + ".jfr"));
+        }
+    }
+
+    private static String toFileName(String fileName) {
+        return fileName.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static class Entry {
+
+        final String fileName;
+        final long bytes;
+        final String outcome;
+        final long nanos;
+        final long allocatedBytes;
+
+        Entry(String fileName, long bytes, String outcome, long nanos, long allocatedBytes) {
+            this.fileName = fileName;
+            this.bytes = bytes;
+            this.outcome = outcome;
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    private static class Scored {
+
+        final Entry entry;
+        final double score;
+
+        Scored(Entry entry, double score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+
+    /**
+     * The top files by score, in a min-heap of bounded size, so that a file that does not make it into the list
+     * costs one comparison.
+     */
+    private static class TopFiles {
+
+        private final PriorityQueue<Scored> heap = new PriorityQueue<>(Comparator.comparingDouble((Scored s) -> s.score));
+
+        synchronized void offer(Entry entry, double score) {
+            if (heap.size() < top) {
+                heap.add(new Scored(entry, score));
+            } else if (score > heap.peek().score) {
+                heap.poll();
+                heap.add(new Scored(entry, score));
+            }
+        }
+
+        synchronized List<Scored> sorted() {
+            List<Scored> result = new ArrayList<>(heap);
+            result.sort(Comparator.comparingDouble((Scored s) -> s.score).reversed());
+            return result;
+        }
+    }
+
+}
@@ -1,24 +1,34 @@
 package iguana;
 
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.iguana.grammar.Grammar;
 import org.iguana.grammar.transformation.DesugarPrecedenceAndAssociativity;
 import org.iguana.grammar.transformation.DesugarStartSymbol;
 import org.iguana.grammar.transformation.EBNFToBNF;
 import org.iguana.grammar.transformation.LayoutWeaver;
 import org.iguana.parser.IguanaParser;
+import org.iguana.parsetree.ParseTreeNode;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 
 import static java.util.stream.Collectors.toList;
 import static org.eclipse.jdt.core.JavaCore.COMPILER_SOURCE;
@@ -33,6 +43,28 @@ public class Utils {
         return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
     }
 
+    /**
+     * Returns the length of the input encoded in UTF-8, the unit in which file sizes are reported, without
+     * encoding it.
+     */
+    public static long getUtf8Length(String input) {
+        long length = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < input.length() && Character.isLowSurrogate(input.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
     public static void writeContentToFile(String content, String path) throws FileNotFoundException {
         try (PrintWriter out = new PrintWriter(path)) {
             out.write(content);
@@ -46,6 +78,19 @@ public class Utils {
                 .collect(toList());
     }
 
+    /**
+     * Strips everything up to and including the project directory, so that results recorded under different
+     * source directories can be compared.
+     */
+    public static String getProjectRelativePath(String path, String projectName) {
+        String projectDir = "/" + projectName + "/";
+        int index = path.indexOf(projectDir);
+        if (index < 0) {
+            return path;
+        }
+        return path.substring(index + projectDir.length());
+    }
+
     public static ASTParser newASTParser(String input) {
         ASTParser astParser = ASTParser.newParser(AST.JLS10);
         astParser.setCompilerOptions(getCompilerOptions());
@@ -54,13 +99,70 @@ public class Utils {
         return astParser;
     }
 
+    /**
+     * An ASTParser that skips method bodies, which yields empty blocks.
+     */
+    public static ASTParser newOutlineASTParser(String input) {
+        ASTParser astParser = newASTParser(input);
+        astParser.setIgnoreMethodBodies(true);
+        return astParser;
+    }
+
+    /**
+     * Checks a converted AST against the AST that Eclipse JDT produces for the same input.
+     */
+    public static boolean matchesEclipseJDT(ASTNode result, String input) {
+        return matchesEclipseJDT(result, input, false);
+    }
+
+    /**
+     * Checks a converted AST against the AST, or with outline the outline, that Eclipse JDT produces for the
+     * same input.
+     */
+    public static boolean matchesEclipseJDT(ASTNode result, String input, boolean outline) {
+        CompilationUnit eclipseJDTResult = (CompilationUnit) (outline ? newOutlineASTParser(input) : newASTParser(input)).createAST(null);
+        return result.subtreeMatch(new CustomASTMatcher(), eclipseJDTResult);
+    }
+
+    /**
+     * The grammar selected with -Diguana.grammar and -Diguana.precedence, JavaNat with OP2 by default.
+     */
     public static Grammar getJavaGrammar() {
-        Grammar grammar = Grammar.load(Utils.class.getResourceAsStream("/JavaNat"));
+        return getJavaGrammar(getGrammarName(), getPrecedence());
+    }
+
+    public static String getGrammarName() {
+        return System.getProperty("iguana.grammar", "JavaNat");
+    }
+
+    public static String getPrecedence() {
+        return System.getProperty("iguana.precedence", "OP2");
+    }
+
+    /**
+     * Loads one of the serialized grammars in the resources, Java or JavaNat, and desugars precedence and
+     * associativity with the given option, OP1 or OP2.
+     */
+    public static Grammar getJavaGrammar(String grammarName, String precedenceOption) {
+        InputStream in = Utils.class.getResourceAsStream("/" + grammarName);
+        if (in == null) {
+            throw new RuntimeException("Unknown grammar: " + grammarName);
+        }
+        Grammar grammar = Grammar.load(in);
 
         grammar = new EBNFToBNF().transform(grammar);
 
         DesugarPrecedenceAndAssociativity precedence = new DesugarPrecedenceAndAssociativity();
-        precedence.setOP2();
+        switch (precedenceOption) {
+            case "OP1":
+                precedence.setOP1();
+                break;
+            case "OP2":
+                precedence.setOP2();
+                break;
+            default:
+                throw new RuntimeException("Unknown precedence option: " + precedenceOption);
+        }
 
         grammar = precedence.transform(grammar);
         grammar = new LayoutWeaver().transform(grammar);
@@ -68,6 +170,74 @@ public class Utils {
         return grammar;
     }
 
+    public static int countNodes(ParseTreeNode node) {
+        int count = 1;
+        for (ParseTreeNode child : node.children()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+
+    public static int countNodes(ParseTree node) {
+        int count = 1;
+        for (int i = 0; i < node.getChildCount(); i++) {
+            count += countNodes(node.getChild(i));
+        }
+        return count;
+    }
+
+    public static int countNodes(ASTNode node) {
+        int[] count = {0};
+        node.accept(new ASTVisitor(true) {
+            @Override
+            public void preVisit(ASTNode node) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * Returns the version of the Iguana library on the class path, or "unknown".
+     */
+    public static String getIguanaVersion() throws IOException {
+        try (InputStream in = Utils.class.getResourceAsStream("/META-INF/maven/iguana/iguana/pom.properties")) {
+            if (in == null) {
+                return "unknown";
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return properties.getProperty("version", "unknown");
+        }
+    }
+
+    public static byte[] getResourceContent(String name) throws IOException {
+        try (InputStream in = Utils.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new FileNotFoundException(name);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    public static String sha256(byte[] bytes) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     static Map<String, String> getCompilerOptions() {
         Map<String, String> options = new HashMap<>();
         options.put(COMPILER_SOURCE, "1.7");
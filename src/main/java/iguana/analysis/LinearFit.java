@@ -0,0 +1,75 @@
+package iguana.analysis;
+
+/**
+ * Ordinary least squares fit of y = intercept + slope * x.
+ */
+public class LinearFit {
+
+    private final double intercept;
+
+    private final double slope;
+
+    private final double slopeStandardError;
+
+    private final double rSquared;
+
+    public LinearFit(double[] x, double[] y) {
+        int n = x.length;
+        if (n < 3) {
+            throw new IllegalArgumentException("At least three points are needed, got " + n);
+        }
+
+        double meanX = mean(x);
+        double meanY = mean(y);
+
+        double sxx = 0;
+        double sxy = 0;
+        double syy = 0;
+        for (int i = 0; i < n; i++) {
+            sxx += (x[i] - meanX) * (x[i] - meanX);
+            sxy += (x[i] - meanX) * (y[i] - meanY);
+            syy += (y[i] - meanY) * (y[i] - meanY);
+        }
+
+        slope = sxy / sxx;
+        intercept = meanY - slope * meanX;
+
+        double residualSumOfSquares = 0;
+        for (int i = 0; i < n; i++) {
+            double residual = y[i] - predict(x[i]);
+            residualSumOfSquares += residual * residual;
+        }
+
+        slopeStandardError = Math.sqrt(residualSumOfSquares / (n - 2) / sxx);
+        rSquared = 1 - residualSumOfSquares / syy;
+    }
+
+    public double predict(double x) {
+        return intercept + slope * x;
+    }
+
+    public double getIntercept() {
+        return intercept;
+    }
+
+    public double getSlope() {
+        return slope;
+    }
+
+    public double getSlopeStandardError() {
+        return slopeStandardError;
+    }
+
+    public double getRSquared() {
+        return rSquared;
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+}
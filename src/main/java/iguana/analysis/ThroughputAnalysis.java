@@ -0,0 +1,154 @@
+package iguana.analysis;
+
+import antlr4java.JavaLexer;
+import iguana.benchmark.history.BenchmarkResults;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static iguana.Utils.getFileContent;
+import static iguana.Utils.getProjectRelativePath;
+import static iguana.Utils.getSourceDir;
+
+/**
+ * Joins benchmark timings with file sizes and, if SOURCE_DIR is set, token counts. For each benchmark it
+ * reports the throughput, fits time = a * size^k in log-log space, where k > 1 means superlinear scaling, and
+ * ranks the files whose time exceeds the fitted time the most.
+ */
+public class ThroughputAnalysis {
+
+    private static final int OUTLIERS = 20;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Missing parameters: ThroughputAnalysis <projectName> <fileSizeCsv> <benchmarkCsv>...");
+            return;
+        }
+        String projectName = args[0];
+
+        Map<String, Long> sizes = readFileSizes(Paths.get(args[1]), projectName);
+        Map<String, Integer> tokens = new HashMap<>();
+
+        for (String csvFile : Arrays.asList(args).subList(2, args.length)) {
+            for (BenchmarkResults results : BenchmarkResults.fromCSV(Paths.get(csvFile), projectName, "", "")) {
+                List<FileTiming> timings = new ArrayList<>();
+                results.getSamples().forEach((path, samples) -> {
+                    Long size = sizes.get(path);
+                    if (size != null && size > 0) {
+                        timings.add(new FileTiming(path, size, countTokens(projectName, path, tokens), samples.getMean()));
+                    }
+                });
+                report(results.getBenchmark() + " (" + csvFile + ")", timings);
+            }
+        }
+    }
+
+    private static void report(String name, List<FileTiming> timings) {
+        System.out.println(name);
+
+        if (timings.size() < 3) {
+            System.out.println("  not enough files with a known size: " + timings.size());
+            return;
+        }
+
+        double totalBytes = timings.stream().mapToDouble(t -> t.bytes).sum();
+        double totalTime = timings.stream().mapToDouble(t -> t.time).sum();
+        double[] bytesPerMs = timings.stream().mapToDouble(t -> t.bytes / t.time).sorted().toArray();
+
+        System.out.println(String.format("  files: %d, bytes: %.0f, time: %.1f ms", timings.size(), totalBytes, totalTime));
+        System.out.println(String.format("  bytes/ms: aggregate %.1f, median %.1f", totalBytes / totalTime, bytesPerMs[bytesPerMs.length / 2]));
+
+        if (timings.stream().allMatch(t -> t.tokens > 0)) {
+            double totalTokens = timings.stream().mapToDouble(t -> t.tokens).sum();
+            double[] tokensPerMs = timings.stream().mapToDouble(t -> t.tokens / t.time).sorted().toArray();
+            System.out.println(String.format("  tokens/ms: aggregate %.1f, median %.1f", totalTokens / totalTime, tokensPerMs[tokensPerMs.length / 2]));
+        }
+
+        double[] logSize = timings.stream().mapToDouble(t -> Math.log(t.bytes)).toArray();
+        double[] logTime = timings.stream().mapToDouble(t -> Math.log(t.time)).toArray();
+        LinearFit fit = new LinearFit(logSize, logTime);
+
+        double exponent = fit.getSlope();
+        double lower = exponent - 1.96 * fit.getSlopeStandardError();
+        double upper = exponent + 1.96 * fit.getSlopeStandardError();
+        String scaling = lower > 1 ? "superlinear" : upper < 1 ? "sublinear" : "linear";
+        System.out.println(String.format("  time ~ size^%.3f (95%% CI %.3f-%.3f, R^2 %.3f): %s", exponent, lower, upper, fit.getRSquared(), scaling));
+
+        System.out.println("  worst files by excess cost (time / fitted time):");
+        timings.stream()
+               .sorted(Comparator.comparingDouble((FileTiming t) -> t.time / Math.exp(fit.predict(Math.log(t.bytes)))).reversed())
+               .limit(OUTLIERS)
+               .forEach(t -> System.out.println(String.format("    %.2fx %8d bytes %10.3f ms  %s",
+                       t.time / Math.exp(fit.predict(Math.log(t.bytes))), t.bytes, t.time, t.path)));
+        System.out.println();
+    }
+
+    private static Map<String, Long> readFileSizes(Path csvFile, String projectName) throws IOException {
+        Map<String, Long> sizes = new HashMap<>();
+
+        List<String> lines = Files.readAllLines(csvFile, StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            // "Param: path","size"
+            int separator = line.lastIndexOf(',');
+            String path = line.substring(0, separator).replace("\"", "");
+            sizes.put(getProjectRelativePath(path, projectName), Long.parseLong(line.substring(separator + 1).trim()));
+        }
+
+        return sizes;
+    }
+
+    /**
+     * Counts the tokens on the default channel, i.e., without layout and comments. Returns 0 if the source
+     * is not available under SOURCE_DIR.
+     */
+    private static int countTokens(String projectName, String path, Map<String, Integer> cache) {
+        if (getSourceDir() == null) {
+            return 0;
+        }
+        return cache.computeIfAbsent(path, p -> {
+            Path file = Paths.get(getSourceDir(), projectName, p);
+            if (!Files.exists(file)) {
+                return 0;
+            }
+            try {
+                JavaLexer lexer = new JavaLexer(CharStreams.fromString(getFileContent(file)));
+                lexer.removeErrorListeners();
+                int count = 0;
+                for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+                    if (token.getChannel() == Token.DEFAULT_CHANNEL) {
+                        count++;
+                    }
+                }
+                return count;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static class FileTiming {
+        private final String path;
+        private final long bytes;
+        private final int tokens;
+        private final double time;
+
+        FileTiming(String path, long bytes, int tokens, double time) {
+            this.path = path;
+            this.bytes = bytes;
+            this.tokens = tokens;
+            this.time = time;
+        }
+    }
+
+}
@@ -1,12 +1,22 @@
 package iguana.benchmark;
 
+import antlr4java.JavaParser;
 import iguana.AntlrJavaParser;
+import iguana.AntlrToJavaParseTreeVisitor;
+import iguana.jfr.FlightRecording;
+import iguana.jfr.FlightRecordings;
+import org.antlr.v4.runtime.ListTokenSource;
 import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
 
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.List;
 
+import static iguana.Utils.countNodes;
 import static iguana.Utils.getFileContent;
 
 @State(Scope.Benchmark)
@@ -15,19 +25,65 @@ public class AntlrBenchmark {
     @Param({""})
     private String path;
 
+    /**
+     * Blank method bodies with OutlineFilter before lexing, which is included in the measured time.
+     */
+    @Param({"false"})
+    private boolean outline;
+
     private String input;
 
     private AntlrJavaParser parser;
 
+    private List<? extends Token> tokens;
+
+    private JavaParser.CompilationUnitContext parseTree;
+
+    private FlightRecording recording;
+
     @Setup
     public void init() throws IOException {
         input = getFileContent(Paths.get(path));
-        parser = new AntlrJavaParser();
+        parser = new AntlrJavaParser(false, false, outline);
+        tokens = parser.lex(input);
+        parseTree = parser.parse(input);
+        recording = FlightRecordings.start();
+    }
+
+    @TearDown
+    public void stopRecording(BenchmarkParams params) throws IOException {
+        FlightRecordings.stop(recording, params.getBenchmark() + "_" + path);
     }
 
     @Benchmark
-    public ParserRuleContext benchmark() {
+    public ParserRuleContext benchmarkParse() {
         return parser.parse(input);
     }
 
+    @Benchmark
+    public List<? extends Token> benchmarkLex() {
+        return parser.lex(input);
+    }
+
+    @Benchmark
+    public ParserRuleContext benchmarkParseTokens() {
+        return parser.parse(new ListTokenSource(tokens));
+    }
+
+    @Benchmark
+    public int benchmarkTraverse() {
+        return countNodes(parseTree);
+    }
+
+    @Benchmark
+    public ASTNode benchmarkConvert() {
+        return parseTree.accept(new AntlrToJavaParseTreeVisitor());
+    }
+
+    @Benchmark
+    public ASTNode benchmarkParseAndConvert() {
+        JavaParser.CompilationUnitContext parseTree = parser.parse(input);
+        return parseTree.accept(new AntlrToJavaParseTreeVisitor());
+    }
+
 }
@@ -1,14 +1,18 @@
 package iguana.benchmark;
 
+import iguana.jfr.FlightRecording;
+import iguana.jfr.FlightRecordings;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
 
 import java.io.IOException;
 import java.nio.file.Paths;
 
 import static iguana.Utils.getFileContent;
 import static iguana.Utils.newASTParser;
+import static iguana.Utils.newOutlineASTParser;
 
 @State(Scope.Benchmark)
 public class EclipseJDTBenchmark {
@@ -16,16 +20,30 @@ public class EclipseJDTBenchmark {
     @Param({""})
     private String path;
 
+    /**
+     * Skip method bodies with ASTParser.setIgnoreMethodBodies.
+     */
+    @Param({"false"})
+    private boolean outline;
+
     private String input;
 
+    private FlightRecording recording;
+
     @Setup
     public void init() throws IOException {
         input = getFileContent(Paths.get(path));
+        recording = FlightRecordings.start();
+    }
+
+    @TearDown
+    public void stopRecording(BenchmarkParams params) throws IOException {
+        FlightRecordings.stop(recording, params.getBenchmark() + "_" + path);
     }
 
     @Benchmark
-    public CompilationUnit benchmark() {
-        ASTParser parser = newASTParser(input);
+    public CompilationUnit benchmarkParseAndConvert() {
+        ASTParser parser = outline ? newOutlineASTParser(input) : newASTParser(input);
         return (CompilationUnit) parser.createAST(null);
     }
 
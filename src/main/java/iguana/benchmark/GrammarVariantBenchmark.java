@@ -0,0 +1,165 @@
+package iguana.benchmark;
+
+import iguana.IguanaJavaParser;
+import org.iguana.parsetree.ParseTreeNode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static iguana.Utils.getFileContent;
+import static iguana.Utils.getFiles;
+import static iguana.Utils.getUtf8Length;
+import static iguana.Utils.matchesEclipseJDT;
+import static org.openjdk.jmh.results.format.ResultFormatType.CSV;
+
+/**
+ * Compares all combinations of the grammar resources, Java and JavaNat, and the precedence options, OP1 and OP2.
+ * For every variant and file it records whether the converted result matches JDT, the size of the SPPF and the
+ * peak live heap of the parse to GrammarVariants.csv. The parse times of the variants are then measured with
+ * IguanaBenchmark on the files that all variants parse, and the fastest variant that matches JDT on every file
+ * that any variant matches is printed.
+ */
+public class GrammarVariantBenchmark {
+
+    private static final String[] GRAMMARS = {"Java", "JavaNat"};
+
+    private static final String[] PRECEDENCES = {"OP1", "OP2"};
+
+    private static final long MB = 1024 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Missing parameters: GrammarVariantBenchmark <directory> <warmupIter> <measurementIter>");
+            return;
+        }
+        String directory = args[0];
+        int warmupIterations = Integer.parseInt(args[1]);
+        int measurementIterations = Integer.parseInt(args[2]);
+
+        List<Path> files = getFiles(directory, ".java");
+
+        Map<String, Set<Path>> conformantFiles = new LinkedHashMap<>();
+        try (PrintWriter writer = new PrintWriter("GrammarVariants.csv");
+             PeakHeapMonitor monitor = new PeakHeapMonitor(MB)) {
+            writer.println("grammar,precedence,path,length,conformant,sppfNodes,peakHeapMB");
+            for (String grammar : GRAMMARS) {
+                for (String precedence : PRECEDENCES) {
+                    IguanaJavaParser parser = new IguanaJavaParser(grammar, precedence, IguanaJavaParser.Preprocessing.NONE);
+                    Set<Path> conformant = new LinkedHashSet<>();
+                    for (Path path : files) {
+                        String input = getFileContent(path);
+
+                        monitor.start();
+                        ParseTreeNode parseTree = parse(parser, input);
+                        long peak = monitor.stop();
+
+                        long sppfNodes = -1;
+                        boolean isConformant = false;
+                        if (parseTree != null) {
+                            sppfNodes = getSPPFNodes(parser.getStatistics(parseTree));
+                            isConformant = isConformant(parser, parseTree, input);
+                        }
+                        if (isConformant) {
+                            conformant.add(path);
+                        }
+                        writer.println(grammar + "," + precedence + "," + path + "," + getUtf8Length(input) + "," + isConformant + "," + sppfNodes + "," + (peak + MB - 1) / MB);
+                    }
+                    conformantFiles.put(grammar + "," + precedence, conformant);
+                    System.out.println(grammar + " " + precedence + ": " + conformant.size() + " of " + files.size() + " files match JDT");
+                }
+            }
+        }
+
+        Set<Path> anyConformant = new LinkedHashSet<>();
+        for (Set<Path> conformant : conformantFiles.values()) {
+            anyConformant.addAll(conformant);
+        }
+
+        List<String> params = new ArrayList<>();
+        for (Path path : files) {
+            if (conformantFiles.values().stream().allMatch(conformant -> conformant.contains(path))) {
+                params.add(path.toString());
+            }
+        }
+
+        if (params.isEmpty()) {
+            System.out.println("No files that all variants parse in " + directory);
+            return;
+        }
+
+        Options options = new OptionsBuilder()
+                .include("IguanaBenchmark\\.benchmarkParse$")
+                .mode(Mode.SingleShotTime)
+                .param("path", params.toArray(new String[]{}))
+                .param("grammar", GRAMMARS)
+                .param("precedence", PRECEDENCES)
+                .timeUnit(TimeUnit.MILLISECONDS)
+                .forks(1)
+                .warmupIterations(warmupIterations)
+                .measurementIterations(measurementIterations)
+                .resultFormat(CSV)
+                .result("GrammarVariantsTime.csv")
+                .output("GrammarVariantsTime.log")
+                .jvmArgs("-Xss4m", "-XX:+UseG1GC")
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        Map<String, Double> totalTimes = new HashMap<>();
+        for (RunResult result : results) {
+            String variant = result.getParams().getParam("grammar") + "," + result.getParams().getParam("precedence");
+            totalTimes.merge(variant, result.getPrimaryResult().getScore(), Double::sum);
+        }
+
+        String fastest = null;
+        for (Map.Entry<String, Set<Path>> entry : conformantFiles.entrySet()) {
+            String variant = entry.getKey();
+            System.out.println(variant + ": " + String.format("%.3f", totalTimes.get(variant)) + " ms in total");
+            if (entry.getValue().size() == anyConformant.size() && (fastest == null || totalTimes.get(variant) < totalTimes.get(fastest))) {
+                fastest = variant;
+            }
+        }
+
+        if (fastest == null) {
+            System.out.println("No variant matches JDT on every file that some variant matches");
+        } else {
+            String[] variant = fastest.split(",");
+            System.out.println("Fastest conformant variant: -Diguana.grammar=" + variant[0] + " -Diguana.precedence=" + variant[1]);
+        }
+    }
+
+    private static ParseTreeNode parse(IguanaJavaParser parser, String input) {
+        try {
+            return parser.parse(input);
+        } catch (RuntimeException | StackOverflowError e) {
+            return null;
+        }
+    }
+
+    private static boolean isConformant(IguanaJavaParser parser, ParseTreeNode parseTree, String input) {
+        try {
+            return matchesEclipseJDT(parser.convert(parseTree), input);
+        } catch (RuntimeException | StackOverflowError e) {
+            return false;
+        }
+    }
+
+    private static long getSPPFNodes(Map<String, Long> statistics) {
+        return statistics.get("nonterminalNodes") + statistics.get("intermediateNodes") + statistics.get("packedNodes") + statistics.get("terminalNodes");
+    }
+
+}
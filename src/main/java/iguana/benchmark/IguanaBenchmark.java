@@ -1,12 +1,24 @@
 package iguana.benchmark;
 
+import iguana.IguanaJavaParser;
+import iguana.IguanaStatistics;
+import iguana.IguanaToJavaParseTreeVisitor;
+import iguana.LayoutIndex;
+import iguana.OutlineFilter;
+import iguana.TokenFrontEnd;
+import iguana.jfr.FlightRecording;
+import iguana.jfr.FlightRecordings;
 import iguana.utils.input.Input;
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.iguana.parser.IguanaParser;
 import org.iguana.parsetree.ParseTreeNode;
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
 
+import java.io.IOException;
 import java.nio.file.Paths;
 
+import static iguana.Utils.countNodes;
 import static iguana.Utils.getFileContent;
 import static iguana.Utils.getJavaGrammar;
 
@@ -16,19 +28,121 @@ public class IguanaBenchmark {
     @Param({""})
     private String path;
 
+    /**
+     * Parse the input compacted by LayoutIndex, printed by TokenFrontEnd or with method bodies blanked by
+     * OutlineFilter, see benchmarkLayoutScan, benchmarkTokenFrontEnd and benchmarkOutlineFilter for the cost of
+     * preprocessing.
+     */
+    @Param({"NONE"})
+    private IguanaJavaParser.Preprocessing preprocessing;
+
+    /**
+     * The grammar resource and precedence option, see Utils.getJavaGrammar.
+     */
+    @Param({"JavaNat"})
+    private String grammar;
+
+    @Param({"OP2"})
+    private String precedence;
+
+    private String content;
+
     private Input input;
 
     private IguanaParser parser;
 
+    private ParseTreeNode parseTree;
+
+    private IguanaStatistics parseStatistics;
+
+    private FlightRecording recording;
+
+    /**
+     * The sizes of the GLL structures and the parse tree, reported next to the time by benchmarkParse. They are
+     * collected once in setup, as the parse is deterministic and counting the tree would add to the measured time.
+     * JMH does not report auxiliary counters in single shot mode, which ParserBenchmark uses, run with -bm avgt to
+     * see them. ParserBenchmark writes the same numbers to its statistics file instead.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Statistics {
+
+        public long descriptors;
+
+        public long gssNodes;
+
+        public long gssEdges;
+
+        public long sppfNodes;
+
+        public long ambiguousNodes;
+
+        public long parseTreeNodes;
+
+        public long parseTreeAmbiguities;
+
+        void set(IguanaStatistics statistics) {
+            descriptors = statistics.getDescriptors();
+            gssNodes = statistics.getGSSNodes();
+            gssEdges = statistics.getGSSEdges();
+            sppfNodes = statistics.getSPPFNodes();
+            ambiguousNodes = statistics.getAmbiguousNodes();
+            parseTreeNodes = statistics.getParseTreeNodes();
+            parseTreeAmbiguities = statistics.getParseTreeAmbiguities();
+        }
+    }
+
     @Setup
     public void init() throws Exception {
-        parser = new IguanaParser(getJavaGrammar());
-        input = Input.fromString(getFileContent(Paths.get(path)));
+        parser = new IguanaParser(getJavaGrammar(grammar, precedence));
+        content = getFileContent(Paths.get(path));
+        input = Input.fromString(preprocessing.apply(content));
+        parseTree = parser.getParserTree(input);
+        parseStatistics = new IguanaStatistics(parser.getStatistics(), parseTree);
+        recording = FlightRecordings.start();
+    }
+
+    @TearDown
+    public void stopRecording(BenchmarkParams params) throws IOException {
+        FlightRecordings.stop(recording, params.getBenchmark() + "_" + path);
+    }
+
+    @Benchmark
+    public ParseTreeNode benchmarkParse(Statistics statistics) {
+        ParseTreeNode parseTree = parser.getParserTree(input);
+        statistics.set(parseStatistics);
+        return parseTree;
+    }
+
+    @Benchmark
+    public String benchmarkLayoutScan() {
+        return LayoutIndex.scan(content).compact();
+    }
+
+    @Benchmark
+    public String benchmarkTokenFrontEnd() {
+        return TokenFrontEnd.toTokenText(content);
+    }
+
+    @Benchmark
+    public String benchmarkOutlineFilter() {
+        return OutlineFilter.apply(content);
+    }
+
+    @Benchmark
+    public int benchmarkTraverse() {
+        return countNodes(parseTree);
+    }
+
+    @Benchmark
+    public ASTNode benchmarkConvert() {
+        return (ASTNode) parseTree.accept(new IguanaToJavaParseTreeVisitor());
     }
 
     @Benchmark
-    public ParseTreeNode benchmarkParse() {
-        return parser.getParserTree(input);
+    public ASTNode benchmarkParseAndConvert() {
+        ParseTreeNode parseTree = parser.getParserTree(input);
+        return (ASTNode) parseTree.accept(new IguanaToJavaParseTreeVisitor());
     }
 
 }
@@ -0,0 +1,96 @@
+package iguana.benchmark;
+
+import iguana.IguanaJavaParser;
+import iguana.LayoutIndex;
+import org.iguana.parsetree.ParseTreeNode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static iguana.Utils.getFileContent;
+import static iguana.Utils.getFiles;
+import static iguana.Utils.getGrammarName;
+import static iguana.Utils.getPrecedence;
+import static iguana.Utils.getUtf8Length;
+import static iguana.Utils.matchesEclipseJDT;
+import static org.openjdk.jmh.results.format.ResultFormatType.CSV;
+
+/**
+ * Benchmarks Iguana with and without the layout pre-scan on the comment-heavy files of a directory, i.e., the
+ * files in which at least the given fraction of characters is whitespace or comments. Every selected file is
+ * first checked by converting the Iguana result for the compacted input and matching it against JDT for the
+ * original input.
+ */
+public class LayoutBenchmark {
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        if (args.length < 4) {
+            System.out.println("Missing parameters: LayoutBenchmark <directory> <minLayoutFraction> <warmupIter> <measurementIter>");
+            return;
+        }
+        String directory = args[0];
+        double minLayoutFraction = Double.parseDouble(args[1]);
+        int warmupIterations = Integer.parseInt(args[2]);
+        int measurementIterations = Integer.parseInt(args[3]);
+
+        IguanaJavaParser parser = new IguanaJavaParser(getGrammarName(), getPrecedence(), IguanaJavaParser.Preprocessing.LAYOUT_PRESCAN);
+
+        List<String> params = new ArrayList<>();
+        System.out.println("path,length,layoutFraction,layoutSpans");
+        for (Path path : getFiles(directory, ".java")) {
+            String input = getFileContent(path);
+            LayoutIndex index = LayoutIndex.scan(input);
+            if (index.getLayoutFraction() < minLayoutFraction) {
+                continue;
+            }
+            System.out.println(path + "," + getUtf8Length(input) + "," + String.format("%.3f", index.getLayoutFraction()) + "," + index.getSpanCount());
+            if (isConformant(parser, input)) {
+                params.add(path.toString());
+            } else {
+                System.out.println("Iguana result for the compacted input does not match JDT: " + path);
+            }
+        }
+
+        if (params.isEmpty()) {
+            System.out.println("No files with a layout fraction of at least " + minLayoutFraction);
+            return;
+        }
+
+        Options options = new OptionsBuilder()
+                .include("IguanaBenchmark\\.(benchmarkParse|benchmarkLayoutScan)$")
+                .mode(Mode.SingleShotTime)
+                .param("path", params.toArray(new String[]{}))
+                .param("preprocessing", "NONE", "LAYOUT_PRESCAN")
+                .timeUnit(TimeUnit.MILLISECONDS)
+                .forks(1)
+                .warmupIterations(warmupIterations)
+                .measurementIterations(measurementIterations)
+                .resultFormat(CSV)
+                .result("LayoutPrescan.csv")
+                .output("LayoutPrescan.log")
+                .jvmArgs("-Xss4m", "-XX:+UseG1GC")
+                .param("grammar", getGrammarName())
+                .param("precedence", getPrecedence())
+                .build();
+
+        new Runner(options).run();
+    }
+
+    private static boolean isConformant(IguanaJavaParser parser, String input) {
+        try {
+            ParseTreeNode parseTree = parser.parse(input);
+            return parseTree != null && matchesEclipseJDT(parser.convert(parseTree), input);
+        } catch (RuntimeException | StackOverflowError e) {
+            return false;
+        }
+    }
+
+}
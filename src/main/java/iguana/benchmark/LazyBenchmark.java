@@ -0,0 +1,97 @@
+package iguana.benchmark;
+
+import iguana.JavaSourceParser;
+import iguana.LazyCompilationUnit;
+import iguana.jfr.FlightRecording;
+import iguana.jfr.FlightRecordings;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static iguana.Utils.getFileContent;
+
+/**
+ * Parses the outline of a file into a LazyCompilationUnit and then the given fraction of its method bodies,
+ * compared to parsing and converting the whole file with the same parser.
+ */
+@State(Scope.Benchmark)
+public class LazyBenchmark {
+
+    @Param({""})
+    private String path;
+
+    /**
+     * Iguana or Antlr.
+     */
+    @Param({"Antlr"})
+    private String parser;
+
+    @Param({"0.1"})
+    private double fraction;
+
+    private String input;
+
+    private JavaSourceParser<LazyCompilationUnit> lazyParser;
+
+    private JavaSourceParser<?> fullParser;
+
+    private FlightRecording recording;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void init() throws IOException {
+        input = getFileContent(Paths.get(path));
+        lazyParser = (JavaSourceParser<LazyCompilationUnit>) JavaSourceParser.forName(parser + "Lazy");
+        fullParser = JavaSourceParser.forName(parser);
+        recording = FlightRecordings.start();
+    }
+
+    @TearDown
+    public void stopRecording(BenchmarkParams params) throws IOException {
+        FlightRecordings.stop(recording, params.getBenchmark() + "_" + path);
+    }
+
+    @Benchmark
+    public LazyCompilationUnit benchmarkParse() {
+        return lazyParser.parse(input);
+    }
+
+    @Benchmark
+    public LazyCompilationUnit benchmarkParseAndMaterialize() {
+        LazyCompilationUnit compilationUnit = lazyParser.parse(input);
+        List<MethodDeclaration> methods = new ArrayList<>();
+        compilationUnit.getCompilationUnit().accept(new ASTVisitor() {
+            @Override
+            public boolean visit(MethodDeclaration node) {
+                if (node.getBody() != null) {
+                    methods.add(node);
+                }
+                return true;
+            }
+        });
+        if (fraction > 0) {
+            int step = (int) Math.max(1, Math.round(1 / fraction));
+            for (int i = 0; i < methods.size(); i += step) {
+                compilationUnit.getBody(methods.get(i));
+            }
+        }
+        return compilationUnit;
+    }
+
+    @Benchmark
+    public CompilationUnit benchmarkParseAndConvert() {
+        return parseAndConvert(fullParser);
+    }
+
+    private <T> CompilationUnit parseAndConvert(JavaSourceParser<T> parser) {
+        return parser.convert(parser.parse(input));
+    }
+
+}
@@ -0,0 +1,161 @@
+package iguana.benchmark;
+
+import com.sun.management.OperatingSystemMXBean;
+import iguana.JavaSourceParser;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.iguana.parsetree.ParseTreeNode;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static iguana.Utils.getFileContent;
+import static iguana.Utils.getFiles;
+
+/**
+ * Produces the same output as the memory_result_*.txt files: path, input length, result name and the heap size
+ * in megabytes needed to parse the file. The heap size is the peak live heap measured in this JVM. With
+ * --verify, it is instead the smallest -Xmx for which SingleFile[Parser]Run succeeds, found by binary search
+ * around the in-process estimate and bounded by the physical memory, files that do not fit are reported on
+ * stderr.
+ */
+public class MemoryBenchmark {
+
+    private static final long MB = 1024 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Missing parameters: MemoryBenchmark <parserName> <directory> [--verify]");
+            return;
+        }
+        String parserName = args[0];
+        String directory = args[1];
+        boolean verify = args.length > 2 && args[2].equals("--verify");
+
+        JavaSourceParser<?> parser = JavaSourceParser.forName(parserName);
+
+        if (verify) {
+            try {
+                Class.forName(getSingleFileRunClass(parserName));
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException("--verify needs " + getSingleFileRunClass(parserName) + ", which only exists for Iguana and Antlr");
+            }
+        }
+        int maxHeapSize = (int) Math.min(Integer.MAX_VALUE,
+                ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class).getTotalPhysicalMemorySize() / MB);
+
+        List<Path> files = getFiles(directory, ".java");
+
+        try (PeakHeapMonitor monitor = new PeakHeapMonitor(MB)) {
+            for (Path path : files) {
+                String input = getFileContent(path);
+
+                monitor.start();
+                Object result = parse(parser, input);
+                long peak = monitor.stop();
+
+                if (result == null) {
+                    continue;
+                }
+
+                int heapSize = (int) ((peak + MB - 1) / MB);
+                if (verify) {
+                    heapSize = findMinimalHeapSize(parserName, path, heapSize, maxHeapSize);
+                    if (heapSize == -1) {
+                        System.err.println(path + ": did not fit in " + maxHeapSize + " MB");
+                        continue;
+                    }
+                }
+
+                System.out.println(path + "," + input.length() + "," + getResultName(result) + "," + heapSize);
+            }
+        }
+    }
+
+    private static Object parse(JavaSourceParser<?> parser, String input) {
+        try {
+            return parser.parse(input);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String getResultName(Object result) {
+        if (result instanceof ParseTreeNode) {
+            return ((ParseTreeNode) result).getName();
+        }
+        if (result instanceof ASTNode) {
+            return result.getClass().getSimpleName();
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the smallest heap size in megabytes for which the file can be parsed, or -1 if it cannot be parsed
+     * with maxHeapSize.
+     */
+    private static int findMinimalHeapSize(String parserName, Path path, int estimate, int maxHeapSize) throws IOException, InterruptedException {
+        int low = 1;
+        int high = Math.min(Math.max(estimate, 2), maxHeapSize);
+        while (!runsWithHeapSize(parserName, path, high)) {
+            if (high >= maxHeapSize) {
+                return -1;
+            }
+            low = high + 1;
+            high = (int) Math.min(2L * high, maxHeapSize);
+        }
+
+        // Invariant: the run succeeds with high and fails with anything below low
+        while (low < high) {
+            int middle = (low + high) / 2;
+            if (runsWithHeapSize(parserName, path, middle)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return high;
+    }
+
+    private static boolean runsWithHeapSize(String parserName, Path path, int heapSize) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + "/bin/java");
+        command.add("-Xss4m");
+        command.add("-XX:+UseG1GC");
+        command.add("-Xmx" + heapSize + "m");
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("iguana.")) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(getSingleFileRunClass(parserName));
+        command.add(path.toString());
+
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.appendTo(new File("/dev/null")))
+                .start();
+
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line);
+            }
+        }
+
+        return process.waitFor() == 0 && output.toString().startsWith(path.toString());
+    }
+
+    private static String getSingleFileRunClass(String parserName) {
+        return "iguana.SingleFile" + parserName + "Run";
+    }
+
+}
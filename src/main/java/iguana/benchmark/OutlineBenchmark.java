@@ -0,0 +1,102 @@
+package iguana.benchmark;
+
+import iguana.AntlrJavaParser;
+import iguana.IguanaJavaParser;
+import iguana.JavaSourceParser;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static iguana.Utils.getFileContent;
+import static iguana.Utils.getFiles;
+import static iguana.Utils.getGrammarName;
+import static iguana.Utils.getPrecedence;
+import static iguana.Utils.matchesEclipseJDT;
+import static org.openjdk.jmh.results.format.ResultFormatType.CSV;
+
+/**
+ * Compares the full parse with the outline parse, which skips method bodies, of Iguana, ANTLR and JDT, and with
+ * the lazy parse of Iguana and ANTLR, see LazyBenchmark. Every file is first checked by converting the Iguana and
+ * ANTLR outlines and matching them against the JDT outline, and by matching the lazy results, with all bodies
+ * parsed, against JDT; files that fail are reported and not benchmarked.
+ */
+public class OutlineBenchmark {
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        if (args.length < 3) {
+            System.out.println("Missing parameters: OutlineBenchmark <directory> <warmupIter> <measurementIter>");
+            return;
+        }
+        String directory = args[0];
+        int warmupIterations = Integer.parseInt(args[1]);
+        int measurementIterations = Integer.parseInt(args[2]);
+
+        List<JavaSourceParser<?>> parsers = new ArrayList<>();
+        parsers.add(new IguanaJavaParser(getGrammarName(), getPrecedence(), IguanaJavaParser.Preprocessing.OUTLINE));
+        parsers.add(new AntlrJavaParser(false, false, true));
+        parsers.add(JavaSourceParser.forName("IguanaLazy"));
+        parsers.add(JavaSourceParser.forName("AntlrLazy"));
+
+        List<String> params = new ArrayList<>();
+        for (Path path : getFiles(directory, ".java")) {
+            String input = getFileContent(path);
+            boolean conformant = true;
+            for (JavaSourceParser<?> parser : parsers) {
+                if (!isConformant(parser, input)) {
+                    System.out.println(parser.getName() + " result does not match JDT: " + path);
+                    conformant = false;
+                }
+            }
+            if (conformant) {
+                params.add(path.toString());
+            }
+        }
+
+        if (params.isEmpty()) {
+            System.out.println("No files to benchmark in " + directory);
+            return;
+        }
+
+        Options options = new OptionsBuilder()
+                .include("IguanaBenchmark\\.(benchmarkParse|benchmarkOutlineFilter)$")
+                .include("AntlrBenchmark\\.benchmarkParse$")
+                .include("EclipseJDTBenchmark\\.benchmarkParseAndConvert$")
+                .include("LazyBenchmark\\..*")
+                .mode(Mode.SingleShotTime)
+                .param("path", params.toArray(new String[]{}))
+                .param("preprocessing", "NONE", "OUTLINE")
+                .param("outline", "false", "true")
+                .param("parser", "Iguana", "Antlr")
+                .timeUnit(TimeUnit.MILLISECONDS)
+                .forks(1)
+                .warmupIterations(warmupIterations)
+                .measurementIterations(measurementIterations)
+                .resultFormat(CSV)
+                .result("Outline.csv")
+                .output("Outline.log")
+                .jvmArgs("-Xss4m", "-XX:+UseG1GC")
+                .param("grammar", getGrammarName())
+                .param("precedence", getPrecedence())
+                .build();
+
+        new Runner(options).run();
+    }
+
+    private static <T> boolean isConformant(JavaSourceParser<T> parser, String input) {
+        try {
+            T parseTree = parser.parse(input);
+            return parseTree != null && matchesEclipseJDT(parser.convert(parseTree), input, parser.isOutline());
+        } catch (RuntimeException | StackOverflowError e) {
+            return false;
+        }
+    }
+
+}
@@ -1,6 +1,13 @@
 package iguana.benchmark;
 
+import iguana.FileProcessor;
+import iguana.JavaSourceParser;
+import iguana.ResultWriter;
+import iguana.benchmark.history.BenchmarkResults;
+import iguana.benchmark.history.ResultStore;
+import iguana.jfr.FlightRecordings;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -8,6 +15,11 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static iguana.Utils.getFiles;
@@ -20,7 +32,7 @@ public class ParserBenchmark {
 
     public static void main(String[] args) throws RunnerException, IOException {
         if (args.length == 0) {
-            System.out.println("Missing parameters: ParserBenchmark <benchmarkName> <projectName> <warmupIter> <measurementIter>");
+            System.out.println("Missing parameters: ParserBenchmark <benchmarkName> <projectName> <warmupIter> <measurementIter> [<method>]");
         }
         String benchmarkName = args[0];
         String projectName = args[1];
@@ -38,6 +50,16 @@ public class ParserBenchmark {
             measurementIterations = Integer.parseInt(args[3]);
         }
 
+        // Parse, Traverse, Convert or ParseAndConvert
+        String defaultMethod = getDefaultMethod(benchmarkName);
+        String method = defaultMethod;
+        if (args.length > 4 && args[4] != null) {
+            method = args[4];
+        }
+
+        // The results of the default method keep the name of the baseline, e.g., Iguana_guava.csv
+        String resultName = benchmarkName + "_" + projectName + (method.equals(defaultMethod) ? "" : "_" + method);
+
         if (getSourceDir() == null) {
             throw new RunnerException("The environment variable 'SOURCE_DIR' is not set");
         }
@@ -47,8 +69,13 @@ public class ParserBenchmark {
                 .map(Path::toString)
                 .collect(toList()).toArray(new String[]{});
 
+        List<String> jvmArgs = new ArrayList<>(Arrays.asList("-Xss4m", "-XX:+UseG1GC"));
+        if (FlightRecordings.isEnabled()) {
+            jvmArgs.add("-D" + FlightRecordings.DIRECTORY_PROPERTY + "=" + System.getProperty(FlightRecordings.DIRECTORY_PROPERTY));
+        }
+
         Options options = new OptionsBuilder()
-                .include(benchmarkName + "Benchmark")
+                .include(benchmarkName + "Benchmark\\.benchmark" + method + "$")
                 .mode(Mode.SingleShotTime)
                 .param("path", params)
                 .timeUnit(TimeUnit.MILLISECONDS)
@@ -56,11 +83,44 @@ public class ParserBenchmark {
                 .warmupIterations(warmupIterations)
                 .measurementIterations(measurementIterations)
                 .resultFormat(CSV)
-                .result(benchmarkName + "_" + projectName + ".csv")
-                .output(benchmarkName + "_" + projectName + ".log")
-                .jvmArgs("-Xss4m", "-XX:+UseG1GC")
+                .result(resultName + ".csv")
+                .output(resultName + ".log")
+                .jvmArgs(jvmArgs.toArray(new String[]{}))
                 .build();
 
-        new Runner(options).run();
+        Collection<RunResult> results = new Runner(options).run();
+
+        String historyDir = System.getenv("HISTORY_DIR");
+        if (historyDir != null) {
+            ResultStore store = new ResultStore(Paths.get(historyDir));
+            String version = BenchmarkResults.getCurrentVersion();
+            String environment = BenchmarkResults.getCurrentEnvironment();
+            for (BenchmarkResults benchmarkResults : BenchmarkResults.fromRunResults(results, projectName, version, environment)) {
+                store.save(benchmarkResults);
+            }
+        }
+
+        writeStatistics(benchmarkName, params, resultName + "_statistics.csv");
+    }
+
+    /**
+     * EclipseJDT always produces a CompilationUnit, so it only has ParseAndConvert.
+     */
+    private static String getDefaultMethod(String benchmarkName) {
+        return benchmarkName.equals("EclipseJDT") ? "ParseAndConvert" : "Parse";
+    }
+
+    /**
+     * Parses every file once more, outside of JMH, and writes its outcome, node count and parser statistics, such
+     * as the sizes of the GLL structures of Iguana, which JMH cannot report in single shot mode. It runs after the
+     * history is saved, as this JVM may not have the stack size of the forks for deeply nested files.
+     */
+    private static void writeStatistics(String benchmarkName, String[] paths, String fileName) throws IOException {
+        FileProcessor<?> processor = new FileProcessor<>(JavaSourceParser.forName(benchmarkName), false, false, true);
+        try (ResultWriter writer = new ResultWriter(Paths.get(fileName))) {
+            for (String path : paths) {
+                writer.write(processor.process(Paths.get(path)));
+            }
+        }
     }
 }
@@ -0,0 +1,114 @@
+package iguana.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Measures the peak live heap of a piece of work running in this JVM. A GC is forced and the heap in use after it
+ * is recorded as a live sample whenever a heap pool grows by the step size since the last sample, or the whole
+ * heap past twice the last live size plus the step. The young generation is empty after a GC and fills at the
+ * allocation rate, so the number of forced GCs grows with the allocated bytes divided by the step size, e.g., with
+ * the number of allocated megabytes for a step of 1 MB.
+ */
+public class PeakHeapMonitor implements AutoCloseable {
+
+    private static final long POLL_INTERVAL_MILLIS = 1;
+
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans()
+            .stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .collect(toList());
+
+    private final long stepBytes;
+
+    private volatile boolean running;
+
+    private volatile long peak;
+
+    private long threshold;
+
+    private Thread poller;
+
+    public PeakHeapMonitor(long stepBytes) {
+        this.stepBytes = stepBytes;
+    }
+
+    public void start() {
+        peak = 0;
+        sample();
+        running = true;
+        poller = new Thread(this::poll, "peak-heap-monitor");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    /**
+     * Stops monitoring and takes a last sample, which includes everything the caller still holds, e.g., the
+     * parse result. Returns the peak live heap in bytes.
+     */
+    public long stop() throws InterruptedException {
+        running = false;
+        poller.join();
+        sample();
+        return peak;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (running) {
+            stop();
+        }
+        for (MemoryPoolMXBean pool : heapPools) {
+            if (pool.isUsageThresholdSupported()) {
+                pool.setUsageThreshold(0);
+            }
+        }
+    }
+
+    private void poll() {
+        while (running) {
+            if (isThresholdExceeded()) {
+                sample();
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private synchronized void sample() {
+        memoryBean.gc();
+        long live = memoryBean.getHeapMemoryUsage().getUsed();
+        if (live > peak) {
+            peak = live;
+        }
+
+        threshold = 2 * live + stepBytes;
+        for (MemoryPoolMXBean pool : heapPools) {
+            if (pool.isUsageThresholdSupported()) {
+                long max = pool.getUsage().getMax();
+                long poolThreshold = pool.getUsage().getUsed() + stepBytes;
+                pool.setUsageThreshold(max < 0 ? poolThreshold : Math.min(poolThreshold, max));
+            }
+        }
+    }
+
+    private synchronized boolean isThresholdExceeded() {
+        for (MemoryPoolMXBean pool : heapPools) {
+            if (pool.isUsageThresholdSupported() && pool.isUsageThresholdExceeded()) {
+                return true;
+            }
+        }
+        return memoryBean.getHeapMemoryUsage().getUsed() > threshold;
+    }
+
+}
@@ -0,0 +1,238 @@
+package iguana.benchmark;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Computes the size of the object graph reachable from a root, excluding objects that are shared with other
+ * roots: everything reachable from the given shared objects (typically the parser) and from static fields of
+ * the classes in the graph, such as ANTLR's ATN and DFA cache. Shallow sizes are estimated from the HotSpot
+ * object layout on a 64-bit JVM.
+ *
+ * On Java 9 and later, fields of JDK classes such as ArrayList are only followed when their packages are opened,
+ * e.g., with --add-opens java.base/java.util=ALL-UNNAMED.
+ */
+public class RetainedSize {
+
+    private final boolean compressedOops = isCompressedOops();
+
+    private final int headerSize = compressedOops ? 12 : 16;
+
+    private final int arrayHeaderSize = compressedOops ? 16 : 24;
+
+    private final int referenceSize = compressedOops ? 4 : 8;
+
+    private final Map<Class<?>, ClassLayout> layouts = new HashMap<>();
+
+    private final Set<Class<?>> inaccessibleClasses = new LinkedHashSet<>();
+
+    public Result measure(Object root, Object... shared) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        walk(Collections.singletonList(root), Collections.emptySet(), object -> classes.add(object.getClass()));
+
+        List<Object> sharedRoots = new ArrayList<>();
+        Collections.addAll(sharedRoots, shared);
+        for (Class<?> clazz : classes) {
+            addStaticFieldValues(clazz, sharedRoots);
+        }
+
+        Set<Object> excluded = newIdentitySet();
+        walk(sharedRoots, Collections.emptySet(), excluded::add);
+
+        Result result = new Result();
+        walk(Collections.singletonList(root), excluded, object -> result.add(object.getClass(), getShallowSize(object)));
+        return result;
+    }
+
+    /**
+     * Classes whose fields could not be followed because their module is not open.
+     */
+    public Set<Class<?>> getInaccessibleClasses() {
+        return inaccessibleClasses;
+    }
+
+    private void walk(List<Object> roots, Set<Object> excluded, Consumer<Object> consumer) {
+        Set<Object> visited = newIdentitySet();
+        Deque<Object> stack = new ArrayDeque<>();
+        for (Object root : roots) {
+            push(root, excluded, visited, stack);
+        }
+
+        while (!stack.isEmpty()) {
+            Object object = stack.pop();
+            consumer.accept(object);
+
+            Class<?> clazz = object.getClass();
+            if (clazz.isArray()) {
+                if (!clazz.getComponentType().isPrimitive()) {
+                    for (Object element : (Object[]) object) {
+                        push(element, excluded, visited, stack);
+                    }
+                }
+                continue;
+            }
+
+            for (Field field : getLayout(clazz).referenceFields) {
+                try {
+                    push(field.get(object), excluded, visited, stack);
+                } catch (IllegalAccessException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
+    private static void push(Object object, Set<Object> excluded, Set<Object> visited, Deque<Object> stack) {
+        if (object == null || object instanceof Class || object instanceof ClassLoader || object instanceof Thread) {
+            return;
+        }
+        if (excluded.contains(object) || !visited.add(object)) {
+            return;
+        }
+        stack.push(object);
+    }
+
+    private void addStaticFieldValues(Class<?> clazz, List<Object> values) {
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                    continue;
+                }
+                if (makeAccessible(field)) {
+                    try {
+                        values.add(field.get(null));
+                    } catch (IllegalAccessException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        }
+    }
+
+    private long getShallowSize(Object object) {
+        Class<?> clazz = object.getClass();
+        if (clazz.isArray()) {
+            Class<?> componentType = clazz.getComponentType();
+            int elementSize = componentType.isPrimitive() ? getPrimitiveSize(componentType) : referenceSize;
+            return align(arrayHeaderSize + (long) Array.getLength(object) * elementSize);
+        }
+        return getLayout(clazz).shallowSize;
+    }
+
+    private ClassLayout getLayout(Class<?> clazz) {
+        ClassLayout layout = layouts.get(clazz);
+        if (layout != null) {
+            return layout;
+        }
+
+        layout = new ClassLayout();
+        long size = headerSize;
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                if (field.getType().isPrimitive()) {
+                    size += getPrimitiveSize(field.getType());
+                } else {
+                    size += referenceSize;
+                    if (makeAccessible(field)) {
+                        layout.referenceFields.add(field);
+                    } else {
+                        inaccessibleClasses.add(c);
+                    }
+                }
+            }
+        }
+        layout.shallowSize = align(size);
+
+        layouts.put(clazz, layout);
+        return layout;
+    }
+
+    private static boolean makeAccessible(Field field) {
+        try {
+            field.setAccessible(true);
+            return true;
+        } catch (RuntimeException e) { // InaccessibleObjectException on Java 9+
+            return false;
+        }
+    }
+
+    private static int getPrimitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) return 8;
+        if (type == int.class || type == float.class) return 4;
+        if (type == short.class || type == char.class) return 2;
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) / 8 * 8;
+    }
+
+    private static Set<Object> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private static boolean isCompressedOops() {
+        try {
+            HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return Boolean.parseBoolean(bean.getVMOption("UseCompressedOops").getValue());
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    private static class ClassLayout {
+        private final List<Field> referenceFields = new ArrayList<>();
+        private long shallowSize;
+    }
+
+    public static class Result {
+
+        private final Map<Class<?>, long[]> histogram = new HashMap<>();
+
+        private long bytes;
+
+        private long objects;
+
+        void add(Class<?> clazz, long size) {
+            long[] entry = histogram.computeIfAbsent(clazz, c -> new long[2]);
+            entry[0]++;
+            entry[1] += size;
+            objects++;
+            bytes += size;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getObjects() {
+            return objects;
+        }
+
+        /**
+         * Object count and bytes per class.
+         */
+        public Map<Class<?>, long[]> getHistogram() {
+            return histogram;
+        }
+    }
+
+}
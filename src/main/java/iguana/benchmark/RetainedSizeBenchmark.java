@@ -0,0 +1,93 @@
+package iguana.benchmark;
+
+import iguana.JavaSourceParser;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static iguana.Utils.getFileContent;
+import static iguana.Utils.getFiles;
+import static iguana.Utils.getSourceDir;
+import static iguana.Utils.getUtf8Length;
+
+/**
+ * Measures the retained size of the parse result of every file in a project: Iguana's ParseTreeNode or
+ * CompactParseTree, ANTLR's CompilationUnitContext or JDT's CompilationUnit. Writes one line per file to
+ * [Parser]_[Project]_retained.csv and the breakdown per node class to [Parser]_[Project]_retained_classes.csv,
+ * both normalized per source byte. Files that cannot be parsed are written with the outcome failure and no sizes.
+ */
+public class RetainedSizeBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Missing parameters: RetainedSizeBenchmark <parserName> <projectName>");
+            return;
+        }
+        String parserName = args[0];
+        String projectName = args[1];
+
+        if (getSourceDir() == null) {
+            throw new RuntimeException("The environment variable 'SOURCE_DIR' is not set");
+        }
+
+        JavaSourceParser<?> parser = JavaSourceParser.forName(parserName);
+        RetainedSize retainedSize = new RetainedSize();
+
+        List<Path> files = getFiles(getSourceDir() + "/" + projectName, ".java");
+
+        Map<Class<?>, long[]> histogram = new HashMap<>();
+        long totalInputBytes = 0;
+
+        String resultName = parserName + "_" + projectName + "_retained";
+
+        try (PrintWriter out = new PrintWriter(resultName + ".csv")) {
+            out.println("path,size,outcome,bytes,objects,bytesPerSourceByte");
+
+            for (Path path : files) {
+                String input = getFileContent(path);
+                long inputBytes = getUtf8Length(input);
+                Object result = parse(parser, input);
+                if (result == null) {
+                    out.println(path + "," + inputBytes + ",failure,,,");
+                    continue;
+                }
+
+                RetainedSize.Result size = retainedSize.measure(result, parser);
+                out.println(path + "," + inputBytes + ",success," + size.getBytes() + "," + size.getObjects() + "," + (double) size.getBytes() / inputBytes);
+
+                totalInputBytes += inputBytes;
+                size.getHistogram().forEach((clazz, entry) -> {
+                    long[] total = histogram.computeIfAbsent(clazz, c -> new long[2]);
+                    total[0] += entry[0];
+                    total[1] += entry[1];
+                });
+            }
+        }
+
+        try (PrintWriter out = new PrintWriter(resultName + "_classes.csv")) {
+            out.println("class,objects,bytes,bytesPerSourceByte");
+            long inputBytes = totalInputBytes;
+            histogram.entrySet()
+                    .stream()
+                    .sorted((e1, e2) -> Long.compare(e2.getValue()[1], e1.getValue()[1]))
+                    .forEach(e -> out.println(e.getKey().getName() + "," + e.getValue()[0] + "," + e.getValue()[1] + "," + (double) e.getValue()[1] / inputBytes));
+        }
+
+        if (!retainedSize.getInaccessibleClasses().isEmpty()) {
+            System.err.println("Fields of the following classes were not followed, open their packages with --add-opens: " + retainedSize.getInaccessibleClasses());
+        }
+    }
+
+    private static Object parse(JavaSourceParser<?> parser, String input) {
+        try {
+            return parser.parse(input);
+        } catch (RuntimeException | StackOverflowError e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package iguana.benchmark;
+
+import iguana.JavaSourceParser;
+import iguana.synthetic.JavaSourceGenerator;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static iguana.Utils.getFileContent;
+import static iguana.Utils.matchesEclipseJDT;
+import static iguana.Utils.writeContentToFile;
+import static org.openjdk.jmh.results.format.ResultFormatType.CSV;
+
+/**
+ * Sweeps the dimensions of JavaSourceGenerator one at a time, keeping the others at their defaults, and
+ * benchmarks Iguana, ANTLR and JDT on the generated files. Every generated file is first checked by converting
+ * the Iguana and ANTLR results and matching them against JDT; files that fail are reported and not benchmarked.
+ */
+public class ScalingBenchmark {
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        if (args.length < 3) {
+            System.out.println("Missing parameters: ScalingBenchmark <outputDir> <warmupIter> <measurementIter>");
+            return;
+        }
+        Path outputDir = Paths.get(args[0]);
+        int warmupIterations = Integer.parseInt(args[1]);
+        int measurementIterations = Integer.parseInt(args[2]);
+
+        Files.createDirectories(outputDir);
+
+        List<Path> files = new ArrayList<>();
+        sweep(outputDir, files, "methods", new int[] { 1, 2, 4, 8, 16, 32, 64, 128, 256 }, JavaSourceGenerator::setMethods);
+        sweep(outputDir, files, "nesting", new int[] { 1, 2, 4, 8, 16, 32, 64 }, JavaSourceGenerator::setNestingDepth);
+        sweep(outputDir, files, "expression", new int[] { 2, 4, 8, 16, 32, 64, 128, 256, 512 }, JavaSourceGenerator::setExpressionLength);
+        sweep(outputDir, files, "generics", new int[] { 1, 2, 4, 8, 16 }, JavaSourceGenerator::setGenericDepth);
+        sweep(outputDir, files, "anonymous", new int[] { 1, 2, 4, 8, 16 }, JavaSourceGenerator::setAnonymousClassDepth);
+        sweep(outputDir, files, "comments", new int[] { 0, 1, 2, 4, 8 }, JavaSourceGenerator::setCommentDensity);
+
+        List<String> params = new ArrayList<>();
+        List<JavaSourceParser<?>> parsers = Arrays.asList(JavaSourceParser.forName("Iguana"), JavaSourceParser.forName("Antlr"));
+        for (Path file : files) {
+            if (isConformant(parsers, file)) {
+                params.add(file.toString());
+            }
+        }
+
+        Options options = new OptionsBuilder()
+                .include("(IguanaBenchmark|AntlrBenchmark)\\.benchmarkParse$")
+                .include("EclipseJDTBenchmark\\.benchmarkParseAndConvert$")
+                .mode(Mode.SingleShotTime)
+                .param("path", params.toArray(new String[]{}))
+                .timeUnit(TimeUnit.MILLISECONDS)
+                .forks(1)
+                .warmupIterations(warmupIterations)
+                .measurementIterations(measurementIterations)
+                .resultFormat(CSV)
+                .result("Scaling.csv")
+                .output("Scaling.log")
+                .jvmArgs("-Xss4m", "-XX:+UseG1GC")
+                .build();
+
+        new Runner(options).run();
+    }
+
+    private static void sweep(Path outputDir, List<Path> files, String dimension, int[] values, BiConsumer<JavaSourceGenerator, Integer> setter) throws IOException {
+        for (int value : values) {
+            String className = "Scaling_" + dimension + "_" + value;
+            JavaSourceGenerator generator = new JavaSourceGenerator();
+            setter.accept(generator, value);
+
+            Path file = outputDir.resolve(className + ".java");
+            writeContentToFile(generator.generate(className), file.toString());
+            files.add(file);
+        }
+    }
+
+    private static boolean isConformant(List<JavaSourceParser<?>> parsers, Path file) throws IOException {
+        String input = getFileContent(file);
+        for (JavaSourceParser<?> parser : parsers) {
+            try {
+                if (!matchesEclipseJDT(convert(parser, input), input)) {
+                    System.out.println(parser.getName() + " result does not match JDT: " + file);
+                    return false;
+                }
+            } catch (RuntimeException | StackOverflowError e) {
+                System.out.println(parser.getName() + " failed on " + file + ": " + e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> CompilationUnit convert(JavaSourceParser<T> parser, String input) {
+        return parser.convert(parser.parse(input));
+    }
+
+}
@@ -0,0 +1,91 @@
+package iguana.benchmark;
+
+import iguana.IguanaJavaParser;
+import iguana.TokenFrontEnd;
+import org.iguana.parsetree.ParseTreeNode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static iguana.Utils.getFileContent;
+import static iguana.Utils.getFiles;
+import static iguana.Utils.getGrammarName;
+import static iguana.Utils.getPrecedence;
+import static iguana.Utils.getUtf8Length;
+import static iguana.Utils.matchesEclipseJDT;
+import static org.openjdk.jmh.results.format.ResultFormatType.CSV;
+
+/**
+ * Compares Iguana on the source and on the tokens of the ANTLR lexer with ANTLR lexing and parsing separately,
+ * to see how much of the difference between Iguana and ANTLR is due to scannerless parsing. Every file is first
+ * checked by converting the Iguana result for the tokens and matching it against JDT for the original source.
+ */
+public class TokenFrontEndBenchmark {
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        if (args.length < 3) {
+            System.out.println("Missing parameters: TokenFrontEndBenchmark <directory> <warmupIter> <measurementIter>");
+            return;
+        }
+        String directory = args[0];
+        int warmupIterations = Integer.parseInt(args[1]);
+        int measurementIterations = Integer.parseInt(args[2]);
+
+        IguanaJavaParser parser = new IguanaJavaParser(getGrammarName(), getPrecedence(), IguanaJavaParser.Preprocessing.TOKEN_FRONT_END);
+
+        List<String> params = new ArrayList<>();
+        System.out.println("path,length,tokenTextLength");
+        for (Path path : getFiles(directory, ".java")) {
+            String input = getFileContent(path);
+            if (isConformant(parser, input)) {
+                System.out.println(path + "," + getUtf8Length(input) + "," + getUtf8Length(TokenFrontEnd.toTokenText(input)));
+                params.add(path.toString());
+            } else {
+                System.out.println("Iguana result for the tokens does not match JDT: " + path);
+            }
+        }
+
+        if (params.isEmpty()) {
+            System.out.println("No files to benchmark in " + directory);
+            return;
+        }
+
+        Options options = new OptionsBuilder()
+                .include("IguanaBenchmark\\.(benchmarkParse|benchmarkTokenFrontEnd)$")
+                .include("AntlrBenchmark\\.(benchmarkParse|benchmarkLex|benchmarkParseTokens)$")
+                .mode(Mode.SingleShotTime)
+                .param("path", params.toArray(new String[]{}))
+                .param("preprocessing", "NONE", "TOKEN_FRONT_END")
+                .timeUnit(TimeUnit.MILLISECONDS)
+                .forks(1)
+                .warmupIterations(warmupIterations)
+                .measurementIterations(measurementIterations)
+                .resultFormat(CSV)
+                .result("TokenFrontEnd.csv")
+                .output("TokenFrontEnd.log")
+                .jvmArgs("-Xss4m", "-XX:+UseG1GC")
+                .param("grammar", getGrammarName())
+                .param("precedence", getPrecedence())
+                .build();
+
+        new Runner(options).run();
+    }
+
+    private static boolean isConformant(IguanaJavaParser parser, String input) {
+        try {
+            ParseTreeNode parseTree = parser.parse(input);
+            return parseTree != null && matchesEclipseJDT(parser.convert(parseTree), input);
+        } catch (RuntimeException | StackOverflowError e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,213 @@
+package iguana.benchmark.history;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares a candidate run with a baseline run, file by file and for the whole project. Deltas are expressed
+ * as the ratio candidate / baseline of the mean scores, so for time-based scores a ratio above one is a
+ * regression. Confidence intervals are computed by bootstrap: per file by resampling the measurement iterations,
+ * and per project by resampling the files and taking the geometric mean of their ratios. Files stored from
+ * ParserBenchmark CSV files have only a mean score; their interval is derived from the JMH score error instead.
+ *
+ * A project has thousands of files, so per file a p-value is derived as well, from the bootstrap estimates or
+ * from a normal approximation of the score errors, and the files are tested together with the Benjamini-Hochberg
+ * procedure, with a false discovery rate of 1 - confidence. A significant file is only a regression or an
+ * improvement if its ratio also differs from one by at least minEffect.
+ */
+public class BenchmarkComparison {
+
+    private final double confidence;
+
+    private final int iterations;
+
+    private final double minEffect;
+
+    private final Random random;
+
+    public BenchmarkComparison(double confidence, double minEffect, int iterations, long seed) {
+        this.confidence = confidence;
+        this.minEffect = minEffect;
+        this.iterations = iterations;
+        this.random = new Random(seed);
+    }
+
+    public List<Delta> compareFiles(BenchmarkResults baseline, BenchmarkResults candidate) {
+        List<Delta> deltas = new ArrayList<>();
+
+        for (Map.Entry<String, BenchmarkResults.Samples> entry : candidate.getSamples().entrySet()) {
+            BenchmarkResults.Samples baselineSamples = baseline.getSamples().get(entry.getKey());
+            if (baselineSamples == null) {
+                continue;
+            }
+            deltas.add(compare(entry.getKey(), baselineSamples, entry.getValue()));
+        }
+
+        // Benjamini-Hochberg: the files with the k smallest p-values are significant, for the largest k such
+        // that the k-th smallest p-value is at most k / m * (1 - confidence)
+        List<Delta> sorted = new ArrayList<>(deltas);
+        sorted.sort(Comparator.comparingDouble(Delta::getPValue));
+        int significant = 0;
+        for (int k = 1; k <= sorted.size(); k++) {
+            if (sorted.get(k - 1).getPValue() <= k * (1 - confidence) / sorted.size()) {
+                significant = k;
+            }
+        }
+        for (int i = 0; i < sorted.size(); i++) {
+            Delta delta = sorted.get(i);
+            delta.significant = i < significant && Math.abs(delta.getRatio() - 1) >= minEffect;
+        }
+
+        return deltas;
+    }
+
+    public Delta compareProject(String project, List<Delta> fileDeltas) {
+        double[] logRatios = fileDeltas.stream().mapToDouble(d -> Math.log(d.getRatio())).toArray();
+        if (logRatios.length == 0) {
+            throw new RuntimeException("The runs have no files in common");
+        }
+
+        double[] estimates = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            double sum = 0;
+            for (int j = 0; j < logRatios.length; j++) {
+                sum += logRatios[random.nextInt(logRatios.length)];
+            }
+            estimates[i] = Math.exp(sum / logRatios.length);
+        }
+
+        double ratio = Math.exp(Arrays.stream(logRatios).average().getAsDouble());
+        Delta delta = newDelta(project, ratio, estimates);
+        delta.significant = delta.getLower() > 1 || delta.getUpper() < 1;
+        return delta;
+    }
+
+    private Delta compare(String path, BenchmarkResults.Samples baseline, BenchmarkResults.Samples candidate) {
+        double ratio = candidate.getMean() / baseline.getMean();
+
+        if (baseline.getValues().length < 2 || candidate.getValues().length < 2) {
+            double lower = (candidate.getMean() - error(candidate)) / (baseline.getMean() + error(baseline));
+            double upper = (candidate.getMean() + error(candidate)) / Math.max(baseline.getMean() - error(baseline), Double.MIN_VALUE);
+            // The JMH score error is the half-width of a 99.9% interval, 3.29 standard errors
+            double pValue = twoSidedPValue(candidate.getMean() - baseline.getMean(), Math.hypot(error(baseline), error(candidate)) / 3.29);
+            return new Delta(path, ratio, lower, upper, pValue);
+        }
+
+        double[] estimates = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            estimates[i] = resampleMean(candidate.getValues()) / resampleMean(baseline.getValues());
+        }
+        return newDelta(path, ratio, estimates);
+    }
+
+    private Delta newDelta(String name, double ratio, double[] estimates) {
+        Arrays.sort(estimates);
+        double alpha = (1 - confidence) / 2;
+        double lower = estimates[(int) Math.floor(alpha * (estimates.length - 1))];
+        double upper = estimates[(int) Math.ceil((1 - alpha) * (estimates.length - 1))];
+
+        // Two-sided p-value of the ratio being one, from a normal approximation of the log of the estimates, as
+        // the fraction of estimates beyond one cannot resolve the small p-values needed for thousands of files
+        double mean = 0;
+        for (double estimate : estimates) {
+            mean += Math.log(estimate);
+        }
+        mean /= estimates.length;
+        double variance = 0;
+        for (double estimate : estimates) {
+            variance += (Math.log(estimate) - mean) * (Math.log(estimate) - mean);
+        }
+        double standardError = Math.sqrt(variance / (estimates.length - 1));
+        double pValue = twoSidedPValue(Math.log(ratio), standardError);
+        return new Delta(name, ratio, lower, upper, pValue);
+    }
+
+    private double resampleMean(double[] values) {
+        double sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += values[random.nextInt(values.length)];
+        }
+        return sum / values.length;
+    }
+
+    private static double error(BenchmarkResults.Samples samples) {
+        return Double.isNaN(samples.getError()) ? 0 : samples.getError();
+    }
+
+    /**
+     * Returns the two-sided p-value of a normally distributed estimate with the given standard error being zero,
+     * using the complementary error function of Abramowitz and Stegun 7.1.26.
+     */
+    private static double twoSidedPValue(double estimate, double standardError) {
+        if (standardError == 0 || Double.isNaN(standardError)) {
+            return estimate == 0 ? 1 : 0;
+        }
+        double z = Math.abs(estimate) / standardError / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * z);
+        return t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-z * z);
+    }
+
+    public static class Delta {
+
+        private final String name;
+
+        private final double ratio;
+
+        private final double lower;
+
+        private final double upper;
+
+        private final double pValue;
+
+        private boolean significant;
+
+        Delta(String name, double ratio, double lower, double upper, double pValue) {
+            this.name = name;
+            this.ratio = ratio;
+            this.lower = lower;
+            this.upper = upper;
+            this.pValue = pValue;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getRatio() {
+            return ratio;
+        }
+
+        public double getLower() {
+            return lower;
+        }
+
+        public double getUpper() {
+            return upper;
+        }
+
+        /**
+         * The uncorrected two-sided p-value of the ratio being one.
+         */
+        public double getPValue() {
+            return pValue;
+        }
+
+        public boolean isRegression() {
+            return significant && ratio > 1;
+        }
+
+        public boolean isImprovement() {
+            return significant && ratio < 1;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s,%.4f,%.4f,%.4f,%.4g", name, ratio, lower, upper, pValue);
+        }
+    }
+
+}
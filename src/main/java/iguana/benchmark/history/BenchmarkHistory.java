@@ -0,0 +1,90 @@
+package iguana.benchmark.history;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+public class BenchmarkHistory {
+
+    private static final String USAGE = "Usage:\n" +
+            "  BenchmarkHistory ingest <csvFile> <projectName> <version> [<environment>]\n" +
+            "  BenchmarkHistory compare <projectName> <benchmark> <baselineVersion> <candidateVersion> [<environment>]";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        String historyDir = System.getenv("HISTORY_DIR");
+        if (historyDir == null) {
+            throw new RuntimeException("The environment variable 'HISTORY_DIR' is not set");
+        }
+        ResultStore store = new ResultStore(Paths.get(historyDir));
+
+        switch (args[0]) {
+            case "ingest":
+                ingest(store, args);
+                break;
+
+            case "compare":
+                if (compare(store, args)) {
+                    System.exit(1);
+                }
+                break;
+
+            default:
+                System.out.println(USAGE);
+        }
+    }
+
+    private static void ingest(ResultStore store, String[] args) throws IOException {
+        Path csvFile = Paths.get(args[1]);
+        String project = args[2];
+        String version = args[3];
+        String environment = args.length > 4 ? args[4] : BenchmarkResults.getCurrentEnvironment();
+
+        for (BenchmarkResults results : BenchmarkResults.fromCSV(csvFile, project, version, environment)) {
+            store.save(results);
+            System.out.println("Stored " + results.getSamples().size() + " files for " + results.getBenchmark());
+        }
+    }
+
+    /**
+     * Prints the significant per-file deltas and the project delta. Returns true if the project regressed.
+     */
+    private static boolean compare(ResultStore store, String[] args) throws IOException {
+        String project = args[1];
+        String benchmark = args[2];
+        String baselineVersion = args[3];
+        String candidateVersion = args[4];
+        String environment = args.length > 5 ? args[5] : BenchmarkResults.getCurrentEnvironment();
+
+        BenchmarkResults baseline = store.load(project, benchmark, baselineVersion, environment);
+        BenchmarkResults candidate = store.load(project, benchmark, candidateVersion, environment);
+
+        BenchmarkComparison comparison = new BenchmarkComparison(0.95, 0.02, 1000, 42);
+        List<BenchmarkComparison.Delta> fileDeltas = comparison.compareFiles(baseline, candidate);
+        BenchmarkComparison.Delta projectDelta = comparison.compareProject(project, fileDeltas);
+
+        List<BenchmarkComparison.Delta> regressions = fileDeltas.stream()
+                .filter(BenchmarkComparison.Delta::isRegression)
+                .sorted(Comparator.comparingDouble(BenchmarkComparison.Delta::getRatio).reversed())
+                .collect(toList());
+        long improvements = fileDeltas.stream().filter(BenchmarkComparison.Delta::isImprovement).count();
+
+        System.out.println("path,ratio,lower,upper,p");
+        regressions.forEach(System.out::println);
+        System.out.println();
+        System.out.println(benchmark + " " + baselineVersion + " -> " + candidateVersion + ": " + fileDeltas.size() + " files, "
+                + regressions.size() + " regressed, " + improvements + " improved");
+        System.out.println("project," + projectDelta + (projectDelta.isRegression() ? ",REGRESSION" : ""));
+
+        return projectDelta.isRegression();
+    }
+
+}
@@ -0,0 +1,208 @@
+package iguana.benchmark.history;
+
+import iguana.Utils;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static iguana.Utils.getProjectRelativePath;
+
+/**
+ * The measurements of one benchmark method, e.g., IguanaBenchmark.benchmarkParse, on one project, keyed by the
+ * project-relative path of each file.
+ */
+public class BenchmarkResults {
+
+    private final String project;
+
+    private final String benchmark;
+
+    private final String version;
+
+    private final String environment;
+
+    private final Map<String, Samples> samples = new LinkedHashMap<>();
+
+    public BenchmarkResults(String project, String benchmark, String version, String environment) {
+        this.project = project;
+        this.benchmark = benchmark;
+        this.version = version;
+        this.environment = environment;
+    }
+
+    public String getProject() {
+        return project;
+    }
+
+    public String getBenchmark() {
+        return benchmark;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getEnvironment() {
+        return environment;
+    }
+
+    public Map<String, Samples> getSamples() {
+        return samples;
+    }
+
+    public void add(String path, Samples fileSamples) {
+        samples.put(path, fileSamples);
+    }
+
+    /**
+     * Groups the results of a ParserBenchmark run by benchmark method, keeping the score of every measurement
+     * iteration.
+     */
+    public static Collection<BenchmarkResults> fromRunResults(Collection<RunResult> runResults, String project, String version, String environment) {
+        Map<String, BenchmarkResults> results = new LinkedHashMap<>();
+
+        for (RunResult runResult : runResults) {
+            String benchmark = getBenchmarkName(runResult.getParams().getBenchmark());
+            String path = getProjectRelativePath(runResult.getParams().getParam("path"), project);
+
+            List<Double> scores = new ArrayList<>();
+            for (BenchmarkResult benchmarkResult : runResult.getBenchmarkResults()) {
+                for (IterationResult iterationResult : benchmarkResult.getIterationResults()) {
+                    scores.add(iterationResult.getPrimaryResult().getScore());
+                }
+            }
+
+            double[] values = scores.stream().mapToDouble(Double::doubleValue).toArray();
+            double error = runResult.getPrimaryResult().getScoreError();
+            String unit = runResult.getPrimaryResult().getScoreUnit();
+
+            results.computeIfAbsent(benchmark, b -> new BenchmarkResults(project, b, version, environment))
+                   .add(path, new Samples(unit, error, values));
+        }
+
+        return results.values();
+    }
+
+    /**
+     * Reads a CSV file written by ParserBenchmark, e.g., Iguana_guava.csv. These files only contain the mean
+     * score and its error per file, not the individual iterations.
+     */
+    public static Collection<BenchmarkResults> fromCSV(Path csvFile, String project, String version, String environment) throws IOException {
+        Map<String, BenchmarkResults> results = new LinkedHashMap<>();
+
+        List<String> lines = Files.readAllLines(csvFile, StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            // "Benchmark","Mode","Threads","Samples","Score","Score Error (99.9%)","Unit","Param: path"
+            String[] columns = line.split(",", 8);
+            if (columns.length < 8) {
+                continue;
+            }
+
+            String benchmark = getBenchmarkName(unquote(columns[0]));
+            double score = Double.parseDouble(columns[4]);
+            double error = Double.parseDouble(columns[5]);
+            String unit = unquote(columns[6]);
+            String path = getProjectRelativePath(unquote(columns[7]), project);
+
+            results.computeIfAbsent(benchmark, b -> new BenchmarkResults(project, b, version, environment))
+                   .add(path, new Samples(unit, error, new double[] { score }));
+        }
+
+        return results.values();
+    }
+
+    /**
+     * The version under test: BENCHMARK_VERSION if set, otherwise the version of the iguana dependency.
+     */
+    public static String getCurrentVersion() throws IOException {
+        String version = System.getenv("BENCHMARK_VERSION");
+        if (version != null) {
+            return version;
+        }
+
+        return Utils.getIguanaVersion();
+    }
+
+    public static String getCurrentEnvironment() {
+        String environment = System.getenv("BENCHMARK_ENVIRONMENT");
+        if (environment != null) {
+            return environment;
+        }
+        return System.getProperty("java.version") + "-" + System.getProperty("os.name") + "-" + System.getProperty("os.arch")
+                + "-" + Runtime.getRuntime().availableProcessors() + "cpu";
+    }
+
+    // iguana.benchmark.IguanaBenchmark.benchmarkParse -> IguanaBenchmark.benchmarkParse
+    private static String getBenchmarkName(String qualifiedName) {
+        String[] parts = qualifiedName.split("\\.");
+        if (parts.length < 2) {
+            return qualifiedName;
+        }
+        String name = parts[parts.length - 2] + "." + parts[parts.length - 1];
+        // AntlrBenchmark.benchmark measured parsing only, as benchmarkParse does now, e.g., in Antlr_guava.csv
+        if (name.equals("AntlrBenchmark.benchmark")) {
+            return "AntlrBenchmark.benchmarkParse";
+        }
+        // EclipseJDTBenchmark.benchmark produced a CompilationUnit, as benchmarkParseAndConvert does now
+        if (name.equals("EclipseJDTBenchmark.benchmark")) {
+            return "EclipseJDTBenchmark.benchmarkParseAndConvert";
+        }
+        return name;
+    }
+
+    private static String unquote(String s) {
+        if (s.length() >= 2 && s.startsWith("\"") && s.endsWith("\"")) {
+            return s.substring(1, s.length() - 1);
+        }
+        return s;
+    }
+
+    public static class Samples {
+
+        private final String unit;
+
+        private final double error;
+
+        private final double[] values;
+
+        public Samples(String unit, double error, double[] values) {
+            this.unit = unit;
+            this.error = error;
+            this.values = values;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        /**
+         * The 99.9% confidence half-width reported by JMH.
+         */
+        public double getError() {
+            return error;
+        }
+
+        public double[] getValues() {
+            return values;
+        }
+
+        public double getMean() {
+            double sum = 0;
+            for (double value : values) {
+                sum += value;
+            }
+            return sum / values.length;
+        }
+    }
+
+}
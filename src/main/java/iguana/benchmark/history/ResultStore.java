@@ -0,0 +1,71 @@
+package iguana.benchmark.history;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Stores benchmark results on the file system as [root]/[project]/[benchmark]/[version]/[environment].csv.
+ * Storing results with the same key again replaces them.
+ */
+public class ResultStore {
+
+    private static final String HEADER = "unit,error,samples,path";
+
+    private final Path root;
+
+    public ResultStore(Path root) {
+        this.root = root;
+    }
+
+    public void save(BenchmarkResults results) throws IOException {
+        Path file = getFile(results.getProject(), results.getBenchmark(), results.getVersion(), results.getEnvironment());
+        Files.createDirectories(file.getParent());
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println(HEADER);
+            for (Map.Entry<String, BenchmarkResults.Samples> entry : results.getSamples().entrySet()) {
+                BenchmarkResults.Samples samples = entry.getValue();
+                String values = Arrays.stream(samples.getValues()).mapToObj(Double::toString).collect(joining(" "));
+                out.println(samples.getUnit() + "," + samples.getError() + "," + values + "," + entry.getKey());
+            }
+        }
+    }
+
+    public BenchmarkResults load(String project, String benchmark, String version, String environment) throws IOException {
+        Path file = getFile(project, benchmark, version, environment);
+        if (!Files.exists(file)) {
+            throw new RuntimeException("No results stored for " + benchmark + " on " + project + ", version " + version + ", environment " + environment);
+        }
+
+        BenchmarkResults results = new BenchmarkResults(project, benchmark, version, environment);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] columns = line.split(",", 4);
+            double[] values = Arrays.stream(columns[2].split(" ")).mapToDouble(Double::parseDouble).toArray();
+            results.add(columns[3], new BenchmarkResults.Samples(columns[0], Double.parseDouble(columns[1]), values));
+        }
+
+        return results;
+    }
+
+    private Path getFile(String project, String benchmark, String version, String environment) {
+        return root.resolve(sanitize(project))
+                   .resolve(sanitize(benchmark))
+                   .resolve(sanitize(version))
+                   .resolve(sanitize(environment) + ".csv");
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+}
@@ -0,0 +1,9 @@
+package iguana.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("iguana.Convert")
+@Label("Convert")
+public class ConvertEvent extends PhaseEvent {
+}
@@ -0,0 +1,16 @@
+package iguana.jfr;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A running flight recording, started by {@link FlightRecordings}.
+ */
+public interface FlightRecording {
+
+    /**
+     * Stops the recording, writes it to the file and closes it.
+     */
+    void dump(Path file) throws IOException;
+
+}
@@ -0,0 +1,102 @@
+package iguana.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Starts and dumps Java Flight Recordings when the system property iguana.jfr names an output directory, and
+ * creates the phase events. All methods do nothing when the property is not set, and the events do nothing when
+ * JFR is not available, as on some JDK 8 builds; jdk.jfr is only loaded through {@link JdkFlightRecorder}.
+ */
+public class FlightRecordings {
+
+    public static final String DIRECTORY_PROPERTY = "iguana.jfr";
+
+    public static final String PER_FILE_PROPERTY = "iguana.jfr.perFile";
+
+    private static final boolean available = isJfrAvailable();
+
+    private static final Phase NO_EVENT = new Phase() {
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void end(String parser, String path, long bytes, String outcome) {
+        }
+    };
+
+    public static boolean isEnabled() {
+        return System.getProperty(DIRECTORY_PROPERTY) != null;
+    }
+
+    public static boolean isPerFile() {
+        return isEnabled() && Boolean.getBoolean(PER_FILE_PROPERTY);
+    }
+
+    public static boolean isAvailable() {
+        return available;
+    }
+
+    public static FlightRecording start() throws IOException {
+        if (!isEnabled()) {
+            return null;
+        }
+        return record();
+    }
+
+    /**
+     * Starts a recording with the profile settings, whether or not iguana.jfr is set.
+     */
+    public static FlightRecording record() throws IOException {
+        if (!available) {
+            throw new IOException("Java Flight Recorder is not available in this JVM");
+        }
+        return JdkFlightRecorder.start();
+    }
+
+    /**
+     * Stops the recording and writes it to [iguana.jfr]/[name].jfr.
+     */
+    public static void stop(FlightRecording recording, String name) throws IOException {
+        if (recording == null) {
+            return;
+        }
+        Path directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY));
+        Files.createDirectories(directory);
+
+        recording.dump(directory.resolve(toFileName(name) + ".jfr"));
+    }
+
+    public static String toFileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    public static Phase newReadEvent() {
+        return available ? JdkFlightRecorder.newReadEvent() : NO_EVENT;
+    }
+
+    public static Phase newParseEvent() {
+        return available ? JdkFlightRecorder.newParseEvent() : NO_EVENT;
+    }
+
+    public static Phase newConvertEvent() {
+        return available ? JdkFlightRecorder.newConvertEvent() : NO_EVENT;
+    }
+
+    public static Phase newVerifyEvent() {
+        return available ? JdkFlightRecorder.newVerifyEvent() : NO_EVENT;
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightRecordings.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
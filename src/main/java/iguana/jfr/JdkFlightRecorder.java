@@ -0,0 +1,47 @@
+package iguana.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * The only class, besides the events and JfrSummary, that links to jdk.jfr. It is loaded by
+ * {@link FlightRecordings} only if JFR is available, so that the drivers and benchmarks also run on JDK 8 builds
+ * without JFR.
+ */
+class JdkFlightRecorder {
+
+    static FlightRecording start() throws IOException {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration("profile"));
+            recording.start();
+            return file -> {
+                recording.stop();
+                recording.dump(file);
+                recording.close();
+            };
+        } catch (ParseException e) {
+            throw new IOException(e);
+        }
+    }
+
+    static Phase newReadEvent() {
+        return new ReadEvent();
+    }
+
+    static Phase newParseEvent() {
+        return new ParseEvent();
+    }
+
+    static Phase newConvertEvent() {
+        return new ConvertEvent();
+    }
+
+    static Phase newVerifyEvent() {
+        return new VerifyEvent();
+    }
+
+}
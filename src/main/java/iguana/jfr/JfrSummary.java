@@ -0,0 +1,96 @@
+package iguana.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints the hottest methods, the top allocation sites and the time spent per phase in a recording.
+ */
+public class JfrSummary {
+
+    private static final int TOP = 20;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Missing parameters: JfrSummary <recording.jfr>");
+            return;
+        }
+
+        Map<String, Long> methodSamples = new HashMap<>();
+        Map<String, Long> allocationSites = new HashMap<>();
+        Map<String, long[]> phases = new HashMap<>();
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(Paths.get(args[0]));
+        for (RecordedEvent event : events) {
+            switch (event.getEventType().getName()) {
+                case "jdk.ExecutionSample":
+                    methodSamples.merge(getTopFrame(event.getStackTrace()), 1L, Long::sum);
+                    break;
+
+                case "jdk.ObjectAllocationSample":
+                    allocationSites.merge(getAllocationSite(event), event.getLong("weight"), Long::sum);
+                    break;
+
+                case "jdk.ObjectAllocationInNewTLAB":
+                    allocationSites.merge(getAllocationSite(event), event.getLong("tlabSize"), Long::sum);
+                    break;
+
+                case "jdk.ObjectAllocationOutsideTLAB":
+                    allocationSites.merge(getAllocationSite(event), event.getLong("allocationSize"), Long::sum);
+                    break;
+
+                case "iguana.Read":
+                case "iguana.Parse":
+                case "iguana.Convert":
+                case "iguana.Verify":
+                    long[] phase = phases.computeIfAbsent(event.getEventType().getName(), k -> new long[3]);
+                    phase[0]++;
+                    phase[1] += event.getDuration().toNanos();
+                    phase[2] += event.getLong("bytes");
+                    break;
+            }
+        }
+
+        System.out.println("Phases (count, total ms, bytes):");
+        phases.forEach((name, phase) -> System.out.println(String.format("  %-16s %8d %12.1f %14d", name, phase[0], phase[1] / 1e6, phase[2])));
+
+        long totalSamples = methodSamples.values().stream().mapToLong(Long::longValue).sum();
+        System.out.println();
+        System.out.println("Hottest methods (self samples, " + totalSamples + " total):");
+        printTop(methodSamples, totalSamples);
+
+        long totalAllocated = allocationSites.values().stream().mapToLong(Long::longValue).sum();
+        System.out.println();
+        System.out.println("Allocation sites (estimated bytes, " + totalAllocated + " total):");
+        printTop(allocationSites, totalAllocated);
+    }
+
+    private static void printTop(Map<String, Long> counts, long total) {
+        counts.entrySet()
+              .stream()
+              .sorted((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()))
+              .limit(TOP)
+              .forEach(e -> System.out.println(String.format("  %6.2f%% %14d  %s", 100.0 * e.getValue() / total, e.getValue(), e.getKey())));
+    }
+
+    private static String getAllocationSite(RecordedEvent event) {
+        return event.getClass("objectClass").getName() + " at " + getTopFrame(event.getStackTrace());
+    }
+
+    private static String getTopFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<unknown>";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+}
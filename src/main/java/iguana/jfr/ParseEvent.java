@@ -0,0 +1,9 @@
+package iguana.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("iguana.Parse")
+@Label("Parse")
+public class ParseEvent extends PhaseEvent {
+}
@@ -0,0 +1,13 @@
+package iguana.jfr;
+
+/**
+ * A phase of processing one source file, recorded as a JFR event when JFR is available, see
+ * {@link FlightRecordings#newParseEvent()}.
+ */
+public interface Phase {
+
+    void begin();
+
+    void end(String parser, String path, long bytes, String outcome);
+
+}
@@ -0,0 +1,38 @@
+package iguana.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * A phase of processing one source file. These events are cheap when no recording is running.
+ */
+@Category({"Iguana", "Parser"})
+public abstract class PhaseEvent extends Event implements Phase {
+
+    @Label("Parser")
+    String parser;
+
+    @Label("Path")
+    String path;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Override
+    public void end(String parser, String path, long bytes, String outcome) {
+        if (shouldCommit()) {
+            this.parser = parser;
+            this.path = path;
+            this.bytes = bytes;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+}
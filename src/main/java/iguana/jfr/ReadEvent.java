@@ -0,0 +1,9 @@
+package iguana.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("iguana.Read")
+@Label("Read")
+public class ReadEvent extends PhaseEvent {
+}
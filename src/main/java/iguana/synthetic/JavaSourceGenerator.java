@@ -0,0 +1,194 @@
+package iguana.synthetic;
+
+import java.util.Random;
+
+/**
+ * Generates valid Java 7 compilation units whose size and structure are controlled by a few dimensions:
+ * the number of methods (file length), the nesting depth of statements, the length of expression chains,
+ * the nesting depth of generic types, the nesting depth of anonymous classes and the number of comments per
+ * statement. The output is deterministic for a given configuration and seed.
+ */
+public class JavaSourceGenerator {
+
+    private int methods = 10;
+
+    private int nestingDepth = 2;
+
+    private int expressionLength = 4;
+
+    private int genericDepth = 1;
+
+    private int anonymousClassDepth = 0;
+
+    private double commentDensity = 0.1;
+
+    private long seed = 0;
+
+    public JavaSourceGenerator setMethods(int methods) {
+        this.methods = methods;
+        return this;
+    }
+
+    public JavaSourceGenerator setNestingDepth(int nestingDepth) {
+        this.nestingDepth = nestingDepth;
+        return this;
+    }
+
+    public JavaSourceGenerator setExpressionLength(int expressionLength) {
+        this.expressionLength = expressionLength;
+        return this;
+    }
+
+    public JavaSourceGenerator setGenericDepth(int genericDepth) {
+        this.genericDepth = genericDepth;
+        return this;
+    }
+
+    public JavaSourceGenerator setAnonymousClassDepth(int anonymousClassDepth) {
+        this.anonymousClassDepth = anonymousClassDepth;
+        return this;
+    }
+
+    public JavaSourceGenerator setCommentDensity(double commentDensity) {
+        this.commentDensity = commentDensity;
+        return this;
+    }
+
+    public JavaSourceGenerator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public String generate(String className) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("package synthetic;\n\n");
+        sb.append("import java.util.List;\n");
+        sb.append("import java.util.Map;\n\n");
+        comment(sb, random, "");
+        sb.append("public class ").append(className).append(" {\n\n");
+
+        for (int i = 0; i < methods; i++) {
+            comment(sb, random, "    ");
+            sb.append("    private ").append(genericType(genericDepth)).append(" field").append(i).append(" = null;\n\n");
+
+            comment(sb, random, "    ");
+            sb.append("    public int method").append(i).append("(int a, int b, String s) {\n");
+            sb.append("        int result = 0;\n");
+            block(sb, random, 2, nestingDepth);
+            if (anonymousClassDepth > 0) {
+                anonymousClass(sb, random, 2, anonymousClassDepth);
+            }
+            sb.append("        return result;\n");
+            sb.append("    }\n\n");
+        }
+
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    // Nested statements, alternating if, while and for, with expression statements at the innermost level
+    private void block(StringBuilder sb, Random random, int indent, int depth) {
+        String prefix = indent(indent);
+
+        if (depth == 0) {
+            comment(sb, random, prefix);
+            sb.append(prefix).append("result += ").append(arithmeticExpression(random)).append(";\n");
+            comment(sb, random, prefix);
+            sb.append(prefix).append("s = ").append(stringConcatenation()).append(";\n");
+            return;
+        }
+
+        comment(sb, random, prefix);
+        switch (depth % 3) {
+            case 0:
+                sb.append(prefix).append("if (a > ").append(depth).append(") {\n");
+                break;
+            case 1:
+                sb.append(prefix).append("while (b < ").append(depth).append(") {\n");
+                sb.append(prefix).append("    b++;\n");
+                break;
+            default:
+                sb.append(prefix).append("for (int i").append(depth).append(" = 0; i").append(depth)
+                  .append(" < a; i").append(depth).append("++) {\n");
+        }
+        block(sb, random, indent + 1, depth - 1);
+        sb.append(prefix).append("}\n");
+    }
+
+    private void anonymousClass(StringBuilder sb, Random random, int indent, int depth) {
+        String prefix = indent(indent);
+
+        comment(sb, random, prefix);
+        sb.append(prefix).append("Runnable runnable").append(depth).append(" = new Runnable() {\n");
+        sb.append(prefix).append("    @Override\n");
+        sb.append(prefix).append("    public void run() {\n");
+        sb.append(prefix).append("        int a = ").append(depth).append(", b = ").append(depth + 1).append(";\n");
+        sb.append(prefix).append("        int result = ").append(arithmeticExpression(random)).append(";\n");
+        if (depth > 1) {
+            anonymousClass(sb, random, indent + 2, depth - 1);
+        }
+        sb.append(prefix).append("    }\n");
+        sb.append(prefix).append("};\n");
+        sb.append(prefix).append("runnable").append(depth).append(".run();\n");
+    }
+
+    private String arithmeticExpression(Random random) {
+        String[] operators = { "+", "-", "*", "/", "%", "&", "|", "^", "<<", ">>" };
+        StringBuilder sb = new StringBuilder("a");
+        for (int i = 1; i < expressionLength; i++) {
+            String operator = operators[random.nextInt(operators.length)];
+            sb.append(' ').append(operator).append(' ');
+            if (operator.equals("/") || operator.equals("%")) {
+                sb.append(i + 1);
+            } else if (i % 4 == 0) {
+                sb.append("(b ").append(operators[random.nextInt(3)]).append(' ').append(i).append(')');
+            } else {
+                sb.append(i % 2 == 0 ? "b" : String.valueOf(i));
+            }
+        }
+        return sb.toString();
+    }
+
+    private String stringConcatenation() {
+        StringBuilder sb = new StringBuilder("s");
+        for (int i = 1; i < expressionLength; i++) {
+            sb.append(" + ");
+            sb.append(i % 2 == 0 ? "a" : "\"part" + i + "\"");
+        }
+        return sb.toString();
+    }
+
+    // Map<String, List<Map<String, List<Integer>>>> for depth 2
+    private static String genericType(int depth) {
+        if (depth == 0) {
+            return "Integer";
+        }
+        return "Map<String, List<" + genericType(depth - 1) + ">>";
+    }
+
+    private void comment(StringBuilder sb, Random random, String prefix) {
+        double comments = commentDensity;
+        while (comments >= 1 || (comments > 0 && random.nextDouble() < comments)) {
+            if (random.nextBoolean()) {
+                sb.append(prefix).append("// A line comment with some text: ").append(random.nextInt()).append('\n');
+            } else {
+                sb.append(prefix).append("/**\n");
+                sb.append(prefix).append(" * A block comment, similar to javadoc or a license header.\n");
+                sb.append(prefix).append(" * @see ").append(random.nextInt(1000)).append('\n');
+                sb.append(prefix).append(" */\n");
+            }
+            comments -= 1;
+        }
+    }
+
+    private static String indent(int level) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < level; i++) {
+            sb.append("    ");
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,182 @@
+package iguana;
+
+import iguana.jfr.FlightRecordings;
+import iguana.jfr.Phase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static iguana.Utils.getFiles;
+import static iguana.Utils.getSourceDir;
+
+/**
+ * Processes all Java files of a project in a two-stage pipeline: files are read on virtual threads and parsed,
+ * and optionally converted and verified, on a pool of platform threads sized to the number of cores. The stages
+ * are connected by a bounded queue, and the number of concurrent reads is bounded as well, so at most
+ * queueCapacity + maxReads file contents are held in memory at any time. With -Diguana.results=[file], a record
+ * per file is written to that file, and with -Diguana.metrics=[file] the {@link Metrics} are written periodically
+ * to that file. With -Diguana.triage=[dir], the slowest and most allocating files are written to that directory,
+ * see {@link Triage}. Files that cannot be read or processed are recorded as failures, and if a stage fails as a
+ * whole, both pools are shut down.
+ *
+ * Requires Java 21, build with -Pjdk21.
+ */
+public class VirtualThreadCorpusRun {
+
+    private record SourceFile(String fileName, String content, long bytes) {}
+
+    private static final SourceFile END = new SourceFile(null, null, 0);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Missing parameters: VirtualThreadCorpusRun <parserName> <projectName> [<queueCapacity>] [<maxReads>]");
+            return;
+        }
+        String parserName = args[0];
+        String projectName = args[1];
+        int queueCapacity = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        int maxReads = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+
+        if (getSourceDir() == null) {
+            throw new RuntimeException("The environment variable 'SOURCE_DIR' is not set");
+        }
+
+        List<Path> files = getFiles(getSourceDir() + "/" + projectName, ".java");
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        BlockingQueue<SourceFile> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Semaphore reads = new Semaphore(maxReads);
+
+        AtomicInteger count = new AtomicInteger();
+        AtomicLong stallTime = new AtomicLong();
+
+        long start = System.nanoTime();
+
+        try (ResultWriter results = ResultWriter.fromProperties();
+             ExecutorService parsers = Executors.newFixedThreadPool(threads);
+             ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor();
+             MetricsExporter metrics = MetricsExporter.fromProperties()) {
+
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(parsers.submit(() -> {
+                    try {
+                        FileProcessor<?> processor = new FileProcessor<>(GuardedParser.guard(parserName));
+                        while (true) {
+                            long waitStart = System.nanoTime();
+                            SourceFile file = queue.take();
+                            stallTime.addAndGet(System.nanoTime() - waitStart);
+
+                            if (file == END) {
+                                return null;
+                            }
+                            FileResult result = process(processor, file, parserName);
+                            if (result.isSuccess()) {
+                                count.incrementAndGet();
+                            }
+                            if (results != null) {
+                                results.write(result);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        // Without this worker, the readers could wait forever for space in the queue
+                        readers.shutdownNow();
+                        throw e;
+                    }
+                }));
+            }
+
+            List<Future<?>> readTasks = new ArrayList<>();
+            for (Path path : files) {
+                readTasks.add(readers.submit(() -> {
+                    reads.acquire();
+                    try {
+                        SourceFile file = read(parserName, path);
+                        if (file != null) {
+                            queue.put(file);
+                        } else if (results != null) {
+                            results.write(FileResult.failure(path.toString(), parserName));
+                        }
+                    } finally {
+                        reads.release();
+                    }
+                    return null;
+                }));
+            }
+
+            boolean complete = false;
+            try {
+                for (Future<?> readTask : readTasks) {
+                    readTask.get();
+                }
+                complete = true;
+            } finally {
+                if (complete) {
+                    for (int i = 0; i < threads; i++) {
+                        queue.put(END);
+                    }
+                } else {
+                    // The workers may never receive END, and closing the pools waits for them
+                    readers.shutdownNow();
+                    parsers.shutdownNow();
+                }
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+
+        long wallTime = System.nanoTime() - start;
+        Triage.write();
+
+        System.out.println(count.get());
+        System.out.println(String.format("files: %d, parser threads: %d, wall: %.1f ms, parser threads waiting for input: %.1f ms",
+                files.size(), threads, wallTime / 1e6, stallTime.get() / 1e6));
+    }
+
+    private static FileResult process(FileProcessor<?> processor, SourceFile file, String parserName) {
+        try {
+            return processor.process(file.fileName(), file.content(), file.bytes());
+        } catch (RuntimeException e) {
+            System.err.println(file.fileName() + ": " + e);
+            return FileResult.failure(file.fileName(), parserName);
+        }
+    }
+
+    /**
+     * Reads the file, or returns null, and counts a failure, if it cannot be read.
+     */
+    private static SourceFile read(String parserName, Path path) {
+        Phase readEvent = FlightRecordings.newReadEvent();
+        readEvent.begin();
+        long start = System.nanoTime();
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            long readEnd = System.nanoTime();
+            String content = new String(bytes, StandardCharsets.UTF_8);
+            readEvent.end(parserName, path.toString(), bytes.length, "success");
+            Metrics.timer("read", parserName).record(readEnd - start);
+            Metrics.timer("decode", parserName).record(System.nanoTime() - readEnd);
+            return new SourceFile(path.toString(), content, bytes.length);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println(path + ": " + e);
+            Metrics.counter("files", parserName).increment();
+            Metrics.counter("failures", parserName).increment();
+            return null;
+        }
+    }
+
+}
@@ -3,6 +3,7 @@ package iguana;
 import antlr4java.JavaParser;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
@@ -16,6 +17,7 @@ import java.util.List;
 
 import static iguana.Utils.*;
 import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 class TestAntlrASTs {
@@ -23,20 +25,20 @@ class TestAntlrASTs {
     @TestFactory
     Collection<DynamicTest> testAntlr() throws Exception {
         List<Path> javaFiles = getFiles(getSourceDir(), ".java");
+        FileProcessor<JavaParser.CompilationUnitContext> processor = new FileProcessor<>(new AntlrJavaParser(), true, true);
 
         return javaFiles.stream().map(path -> DynamicTest.dynamicTest(path.toString(), () -> {
-            String input = getFileContent(path);
-            AntlrJavaParser parser = new AntlrJavaParser();
-            JavaParser.CompilationUnitContext compilationUnit = parser.parse(input);
-            CompilationUnit antlrResult = (CompilationUnit) compilationUnit.accept(new AntlrToJavaParseTreeVisitor());
-
-            ASTParser astParser = newASTParser(input);
-            CompilationUnit eclipseJDTResult = (CompilationUnit) astParser.createAST(null);
-
-            assertTrue(antlrResult.subtreeMatch(new CustomASTMatcher(), eclipseJDTResult));
+            FileResult result = processor.process(path);
+            assertEquals(FileResult.Outcome.SUCCESS, result.getOutcome());
         })).collect(toList());
     }
 
+    @AfterAll
+    static void writeMetrics() throws IOException {
+        MetricsExporter.writeIfEnabled();
+        Triage.write();
+    }
+
     @Test
     void testAllInOne() throws Exception {
         String input = getFileContent(Paths.get(this.getClass().getResource("/AllInOne7.java").toURI()));
@@ -51,4 +53,49 @@ class TestAntlrASTs {
         assertTrue(antlrResult.subtreeMatch(new CustomASTMatcher(), eclipseJDTResult));
     }
 
+    @Test
+    void testAllInOneOutline() throws Exception {
+        String input = getFileContent(Paths.get(this.getClass().getResource("/AllInOne7.java").toURI()));
+
+        AntlrJavaParser parser = new AntlrJavaParser(false, false, true);
+        JavaParser.CompilationUnitContext compilationUnit = parser.parse(input);
+        CompilationUnit antlrResult = (CompilationUnit) compilationUnit.accept(new AntlrToJavaParseTreeVisitor());
+
+        ASTParser astParser = newOutlineASTParser(input);
+        CompilationUnit eclipseJDTResult = (CompilationUnit) astParser.createAST(null);
+
+        assertTrue(antlrResult.subtreeMatch(new CustomASTMatcher(), eclipseJDTResult));
+    }
+
+    @Test
+    void testAllInOneLazy() throws Exception {
+        String input = getFileContent(Paths.get(this.getClass().getResource("/AllInOne7.java").toURI()));
+
+        AntlrJavaParser parser = new AntlrJavaParser();
+        LazyCompilationUnit lazyCompilationUnit = LazyCompilationUnit.parse(input, parser, parser, "AntlrLazy");
+        assertEquals(lazyCompilationUnit.getStatistics().get("bodies"), lazyCompilationUnit.getStatistics().get("pendingBodies"));
+
+        lazyCompilationUnit.materializeAll();
+        assertEquals(0L, (long) lazyCompilationUnit.getStatistics().get("retainedInputChars"));
+
+        ASTParser astParser = newASTParser(input);
+        CompilationUnit eclipseJDTResult = (CompilationUnit) astParser.createAST(null);
+
+        assertTrue(lazyCompilationUnit.getCompilationUnit().subtreeMatch(new CustomASTMatcher(), eclipseJDTResult));
+    }
+
+    @Test
+    void testAllInOneLean() throws Exception {
+        String input = getFileContent(Paths.get(this.getClass().getResource("/AllInOne7.java").toURI()));
+
+        AntlrJavaParser parser = new AntlrJavaParser(true, true);
+        JavaParser.CompilationUnitContext compilationUnit = parser.parse(input);
+        CompilationUnit antlrResult = (CompilationUnit) compilationUnit.accept(new AntlrToJavaParseTreeVisitor());
+
+        ASTParser astParser = newASTParser(input);
+        CompilationUnit eclipseJDTResult = (CompilationUnit) astParser.createAST(null);
+
+        assertTrue(antlrResult.subtreeMatch(new CustomASTMatcher(), eclipseJDTResult));
+    }
+
 }
@@ -0,0 +1,111 @@
+package iguana;
+
+import antlr4java.JavaLexer;
+import antlr4java.JavaParser;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static iguana.Utils.getFileContent;
+import static org.junit.Assert.assertTrue;
+
+class TestAntlrIncremental {
+
+    private static final int MAX_EDITS = 100;
+
+    @Test
+    void testLayoutEdits() throws Exception {
+        testEdits(result -> getTokenEnds(result.getInput(), JavaLexer.SEMI), new String[] {"\n// comment\n", " /* comment */ ", "\n\n"});
+    }
+
+    @Test
+    void testCommentEdits() throws Exception {
+        testEdits(result -> getTokenStarts(result.getInput(), JavaLexer.COMMENT, JavaLexer.LINE_COMMENT), new String[] {" edited", " /* edited", " // edited"});
+    }
+
+    @Test
+    void testStatementEdits() throws Exception {
+        testEdits(TestAntlrIncremental::getBlockStarts, new String[] {" int x = 1;", " x = y + 1;\n"});
+    }
+
+    /**
+     * Inserts the replacements in turn at the nth anchor for the nth edit, so that every anchor of the input is
+     * edited once, and checks every result against a full parse.
+     */
+    private void testEdits(Function<IncrementalAntlrParser.Result, List<Integer>> anchors, String[] replacements) throws Exception {
+        String input = getFileContent(Paths.get(this.getClass().getResource("/AllInOne7.java").toURI()));
+
+        IncrementalAntlrParser parser = new IncrementalAntlrParser();
+        IncrementalAntlrParser.Result result = parser.parse(input);
+
+        int edits = 0;
+        int incremental = 0;
+        List<Integer> offsets = anchors.apply(result);
+        while (edits < offsets.size() && edits < MAX_EDITS) {
+            String replacement = replacements[edits % replacements.length];
+            result = parser.reparse(result, new IncrementalAntlrParser.Edit(offsets.get(edits++), 0, replacement));
+            if (result.getReparsedRegion() != null) {
+                incremental++;
+            }
+            assertTrue(parser.matchesFullParse(result));
+            offsets = anchors.apply(result);
+        }
+        assertTrue(edits > 10);
+        assertTrue(incremental > edits / 2);
+    }
+
+    /**
+     * Returns the offsets after the tokens of the given type.
+     */
+    private static List<Integer> getTokenEnds(String input, int type) {
+        List<Integer> offsets = new ArrayList<>();
+        for (Token token : new JavaLexer(CharStreams.fromString(input)).getAllTokens()) {
+            if (token.getType() == type) {
+                offsets.add(token.getStopIndex() + 1);
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Returns the offsets inside the comments, after their // or /*, so that an edit there stays in the comment.
+     */
+    private static List<Integer> getTokenStarts(String input, int... types) {
+        List<Integer> offsets = new ArrayList<>();
+        for (Token token : new JavaLexer(CharStreams.fromString(input)).getAllTokens()) {
+            for (int type : types) {
+                if (token.getType() == type) {
+                    offsets.add(token.getStartIndex() + 2);
+                }
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Returns the offsets after the opening braces of the blocks, where statements can be inserted.
+     */
+    private static List<Integer> getBlockStarts(IncrementalAntlrParser.Result result) {
+        List<Integer> offsets = new ArrayList<>();
+        addBlockStarts(result.getParseTree(), offsets);
+        offsets.sort(null);
+        return offsets;
+    }
+
+    private static void addBlockStarts(ParseTree tree, List<Integer> offsets) {
+        if (tree instanceof JavaParser.BlockContext) {
+            offsets.add(((ParserRuleContext) tree).getStart().getStopIndex() + 1);
+        }
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            addBlockStarts(tree.getChild(i), offsets);
+        }
+    }
+
+}
@@ -5,18 +5,15 @@ import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.iguana.grammar.Grammar;
-import org.iguana.grammar.transformation.DesugarPrecedenceAndAssociativity;
-import org.iguana.grammar.transformation.DesugarStartSymbol;
-import org.iguana.grammar.transformation.EBNFToBNF;
-import org.iguana.grammar.transformation.LayoutWeaver;
 import org.iguana.parser.IguanaParser;
 import org.iguana.parsetree.ParseTreeNode;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
-import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
@@ -24,6 +21,7 @@ import java.util.List;
 
 import static iguana.Utils.*;
 import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -31,20 +29,17 @@ class TestIguanaASTs {
 
     private IguanaParser parser;
 
+    private FileProcessor<ParseTreeNode> processor;
+
     @BeforeEach
     void init() throws Exception {
-        Grammar grammar = Grammar.load(new File(this.getClass().getResource("/JavaNat").toURI()));
-
-        grammar = new EBNFToBNF().transform(grammar);
-
-        DesugarPrecedenceAndAssociativity precedence = new DesugarPrecedenceAndAssociativity();
-        precedence.setOP2();
-
-        grammar = precedence.transform(grammar);
-        grammar = new LayoutWeaver().transform(grammar);
-        grammar = new DesugarStartSymbol().transform(grammar);
+        // -Diguana.grammar and -Diguana.precedence select the grammar variant under test
+        Grammar grammar = getJavaGrammar();
 
         parser = new IguanaParser(grammar);
+
+        // -Diguana.timeout and -Diguana.maxAllocatedMB guard the parse of each file
+        processor = new FileProcessor<>(GuardedParser.guard(() -> new IguanaJavaParser(grammar, getGrammarName(), getPrecedence(), IguanaJavaParser.Preprocessing.NONE)), true, true);
     }
 
     @TestFactory
@@ -52,21 +47,17 @@ class TestIguanaASTs {
         List<Path> javaFiles = getFiles(getSourceDir(), ".java");
 
         return javaFiles.stream().map(path -> DynamicTest.dynamicTest(path.toString(), () -> {
-            String inputContent = getFileContent(path);
-            Input input = Input.fromString(inputContent);
-
-            ParseTreeNode parseTreeNode = parser.getParserTree(input);
-            assertNotNull(parseTreeNode);
-
-            ASTParser astParser = newASTParser(inputContent);
-            CompilationUnit eclipseJDTResult = (CompilationUnit) astParser.createAST(null);
-
-            ASTNode iguanaResult = (ASTNode) parseTreeNode.accept(new IguanaToJavaParseTreeVisitor());
-
-            assertTrue(iguanaResult.subtreeMatch(new CustomASTMatcher(), eclipseJDTResult));
+            FileResult result = processor.process(path);
+            assertEquals(FileResult.Outcome.SUCCESS, result.getOutcome());
         })).collect(toList());
     }
 
+    @AfterAll
+    static void writeMetrics() throws IOException {
+        MetricsExporter.writeIfEnabled();
+        Triage.write();
+    }
+
 
     @Test
     void testAllInOne() throws Exception {
@@ -84,4 +75,53 @@ class TestIguanaASTs {
         assertTrue(iguanaResult.subtreeMatch(new CustomASTMatcher(), eclipseJDTResult));
     }
 
+    @Test
+    void testAllInOneOutline() throws Exception {
+        String inputContent = getFileContent(Paths.get(this.getClass().getResource("/AllInOne7.java").toURI()));
+        Input input = Input.fromString(OutlineFilter.apply(inputContent));
+
+        ParseTreeNode parseTreeNode = parser.getParserTree(input);
+        assertNotNull(parseTreeNode);
+
+        ASTNode iguanaResult = (ASTNode) parseTreeNode.accept(new IguanaToJavaParseTreeVisitor());
+
+        ASTParser astParser = newOutlineASTParser(inputContent);
+        CompilationUnit eclipseJDTResult = (CompilationUnit) astParser.createAST(null);
+
+        assertTrue(iguanaResult.subtreeMatch(new CustomASTMatcher(), eclipseJDTResult));
+    }
+
+    @Test
+    void testAllInOneLazy() throws Exception {
+        String inputContent = getFileContent(Paths.get(this.getClass().getResource("/AllInOne7.java").toURI()));
+
+        IguanaJavaParser iguanaParser = new IguanaJavaParser(getJavaGrammar(), getGrammarName(), getPrecedence(), IguanaJavaParser.Preprocessing.NONE);
+        LazyCompilationUnit lazyCompilationUnit = LazyCompilationUnit.parse(inputContent, iguanaParser, iguanaParser, "IguanaLazy");
+        assertNotNull(lazyCompilationUnit);
+        lazyCompilationUnit.materializeAll();
+
+        ASTParser astParser = newASTParser(inputContent);
+        CompilationUnit eclipseJDTResult = (CompilationUnit) astParser.createAST(null);
+
+        assertTrue(lazyCompilationUnit.getCompilationUnit().subtreeMatch(new CustomASTMatcher(), eclipseJDTResult));
+    }
+
+    @Test
+    void testAllInOneCompact() throws Exception {
+        String inputContent = getFileContent(Paths.get(this.getClass().getResource("/AllInOne7.java").toURI()));
+
+        ParseTreeNode parseTreeNode = parser.getParserTree(Input.fromString(inputContent));
+        assertNotNull(parseTreeNode);
+
+        CompactParseTree compactParseTree = CompactParseTree.of(parseTreeNode, inputContent);
+        assertEquals(countNodes(parseTreeNode), compactParseTree.size());
+
+        ASTNode iguanaResult = new CompactIguanaToJavaParseTreeVisitor().convert(compactParseTree);
+
+        ASTParser astParser = newASTParser(inputContent);
+        CompilationUnit eclipseJDTResult = (CompilationUnit) astParser.createAST(null);
+
+        assertTrue(iguanaResult.subtreeMatch(new CustomASTMatcher(), eclipseJDTResult));
+    }
+
 }
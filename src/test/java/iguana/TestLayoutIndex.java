@@ -0,0 +1,50 @@
+package iguana;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.Assert.assertEquals;
+
+class TestLayoutIndex {
+
+    @Test
+    void testSpans() {
+        LayoutIndex index = LayoutIndex.scan("  a /* b */ // c\n\tb  ");
+        assertEquals(3, index.getSpanCount());
+        assertEquals(0, index.getSpanStart(0));
+        assertEquals(2, index.getSpanEnd(0));
+        assertEquals(3, index.getSpanStart(1));
+        assertEquals(18, index.getSpanEnd(1));
+        assertEquals(19, index.getSpanStart(2));
+        assertEquals(21, index.getSpanEnd(2));
+        assertEquals(19, index.getLayoutLength());
+    }
+
+    @Test
+    void testCompact() {
+        assertEquals("a b", compact("  a /* b */ // c\n\tb  "));
+        assertEquals("int x = 1;", compact("int   x\n=\r\n1;"));
+        assertEquals("a b", compact("a/**/b"));
+        assertEquals("a - -b", compact("a - -b"));
+        assertEquals("a- -b", compact("a-/* c */-b"));
+        assertEquals("x = y >> 2;", compact("x  =  y >> 2;"));
+    }
+
+    @Test
+    void testLiterals() {
+        assertEquals("char c = '\"'; int x;", compact("char c = '\"';  int x;"));
+        assertEquals("s = \"a//b /* c */\"; x", compact("s = \"a//b /* c */\";  // d\n x"));
+        assertEquals("s = \"\\\"//\"; x", compact("s = \"\\\"//\";\nx"));
+        assertEquals("c = '\\''; x", compact("c = '\\'';  x"));
+    }
+
+    @Test
+    void testUnterminatedComment() {
+        assertEquals("int x; /* not closed", compact("int x;  /* not   closed"));
+        assertEquals("int x;", compact("int x; // not closed"));
+    }
+
+    private static String compact(String input) {
+        return LayoutIndex.scan(input).compact();
+    }
+
+}
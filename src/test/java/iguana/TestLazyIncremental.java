@@ -0,0 +1,88 @@
+package iguana;
+
+import antlr4java.JavaLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import static iguana.Utils.getFileContent;
+import static iguana.Utils.matchesEclipseJDT;
+import static org.junit.Assert.assertTrue;
+
+class TestLazyIncremental {
+
+    private static final int MAX_EDITS = 50;
+
+    private static final List<Integer> CONTROL_KEYWORDS = Arrays.asList(JavaLexer.IF, JavaLexer.WHILE, JavaLexer.FOR, JavaLexer.CATCH, JavaLexer.SYNCHRONIZED);
+
+    @Test
+    void testAntlr() throws Exception {
+        testEdits("AntlrLazy");
+    }
+
+    @Test
+    void testIguana() throws Exception {
+        testEdits("IguanaLazy");
+    }
+
+    /**
+     * Inserts statements at the start of the blocks of control statements, which are all within bodies, and
+     * checks every result against JDT.
+     */
+    private void testEdits(String parserName) throws Exception {
+        String input = getFileContent(Paths.get(this.getClass().getResource("/AllInOne7.java").toURI()));
+        String[] replacements = {" int x = 1;", " // comment\n", " x = y + 1;\n"};
+
+        LazyJavaParser<?> parser = (LazyJavaParser<?>) JavaSourceParser.forName(parserName);
+        LazyCompilationUnit result = parser.parse(input);
+
+        int edits = 0;
+        int incremental = 0;
+        List<Integer> offsets = getControlBlockStarts(input);
+        while (edits < offsets.size() && edits < MAX_EDITS) {
+            IncrementalAntlrParser.Edit edit = new IncrementalAntlrParser.Edit(offsets.get(edits), 0, replacements[edits++ % replacements.length]);
+            LazyCompilationUnit previous = result;
+            result = parser.reparse(result, input, edit);
+            input = edit.apply(input);
+            if (result == previous) {
+                incremental++;
+            }
+            assertTrue(matchesEclipseJDT(parser.convert(result), input, false));
+            offsets = getControlBlockStarts(input);
+        }
+        assertTrue(edits > 10);
+        assertTrue(incremental > edits / 2);
+    }
+
+    /**
+     * Returns the offsets after the opening braces of the blocks of if, while, for, catch and synchronized.
+     */
+    private static List<Integer> getControlBlockStarts(String input) {
+        List<Integer> offsets = new ArrayList<>();
+        Deque<Integer> parenOwners = new ArrayDeque<>();
+        int previous = -1;
+        int lastParenOwner = -1;
+        for (Token token : new JavaLexer(CharStreams.fromString(input)).getAllTokens()) {
+            if (token.getChannel() != Token.DEFAULT_CHANNEL) {
+                continue;
+            }
+            if (token.getType() == JavaLexer.LPAREN) {
+                parenOwners.push(previous);
+            } else if (token.getType() == JavaLexer.RPAREN) {
+                lastParenOwner = parenOwners.isEmpty() ? -1 : parenOwners.pop();
+            } else if (token.getType() == JavaLexer.LBRACE && previous == JavaLexer.RPAREN && CONTROL_KEYWORDS.contains(lastParenOwner)) {
+                offsets.add(token.getStopIndex() + 1);
+            }
+            previous = token.getType();
+        }
+        return offsets;
+    }
+
+}
@@ -0,0 +1,37 @@
+package iguana;
+
+import org.junit.jupiter.api.Test;
+
+import static iguana.TokenFrontEnd.toTokenText;
+import static org.junit.Assert.assertEquals;
+
+class TestTokenFrontEnd {
+
+    @Test
+    void testSeparators() {
+        assertEquals("class A{void m(int a,int b){a.b();}}", toTokenText("class A {\n    void m(int a, int b) {\n        a . b ( ) ;\n    }\n}"));
+        assertEquals("@Override public String toString();", toTokenText("@ Override\npublic String toString();"));
+    }
+
+    @Test
+    void testComments() {
+        assertEquals("int x = 1;", toTokenText("int /* a */ x // b\n= 1; /** c */"));
+        assertEquals("a- -b", toTokenText("a-/* c */-b"));
+    }
+
+    @Test
+    void testAdjacentOperators() {
+        assertEquals("a - -b", toTokenText("a - -b"));
+        assertEquals("a--b", toTokenText("a--b"));
+        assertEquals("x = y >> 2;", toTokenText("x  =  y >> 2;"));
+        assertEquals("List<List<String>> l;", toTokenText("List<List<String>>\n l;"));
+    }
+
+    @Test
+    void testLiterals() {
+        assertEquals("char c = '\"';", toTokenText("char c = '\"';"));
+        assertEquals("s = \"a//b /* c */\";", toTokenText("s = \"a//b /* c */\"; // d"));
+        assertEquals("c = '\\'';", toTokenText("c = '\\'';"));
+    }
+
+}